@@ -0,0 +1,263 @@
+package com.wangyousong.practice.di.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+
+@SupportedAnnotationTypes({ComponentProcessor.INJECT, ComponentProcessor.SINGLETON})
+public class ComponentProcessor extends AbstractProcessor {
+    static final String INJECT = "jakarta.inject.Inject";
+    static final String SINGLETON = "jakarta.inject.Singleton";
+    static final String QUALIFIER = "jakarta.inject.Qualifier";
+    static final String NAMED = "jakarta.inject.Named";
+    static final String SUFFIX = "$$Factory";
+    static final String INDEX = "META-INF/di/components";
+    private static final String DI = "com.wangyousong.practice.di";
+
+    private final Set<String> indexed = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        if (round.processingOver()) {
+            if (!indexed.isEmpty()) writeIndex();
+            return false;
+        }
+        TypeElement inject = processingEnv.getElementUtils().getTypeElement(INJECT);
+        if (inject == null) return false;
+
+        Set<TypeElement> components = new LinkedHashSet<>();
+        for (Element element : round.getElementsAnnotatedWith(inject))
+            if (element.getEnclosingElement() instanceof TypeElement type) components.add(type);
+        for (TypeElement component : components)
+            factoryOf(component).ifPresent(factory -> write(component, factory));
+
+        TypeElement singleton = processingEnv.getElementUtils().getTypeElement(SINGLETON);
+        if (singleton != null)
+            for (Element element : round.getElementsAnnotatedWith(singleton))
+                if (element instanceof TypeElement type) components.add(type);
+        for (TypeElement component : components)
+            if (isDiscoverable(component))
+                indexed.add(processingEnv.getElementUtils().getBinaryName(component).toString());
+        return false;
+    }
+
+    private boolean isDiscoverable(TypeElement component) {
+        Set<Modifier> modifiers = component.getModifiers();
+        if (component.getKind() != ElementKind.CLASS || modifiers.contains(Modifier.ABSTRACT)) return false;
+        if (component.getNestingKind() != NestingKind.TOP_LEVEL
+                && (component.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC))) return false;
+        if (isAnnotated(component, SINGLETON)) return true;
+        return ElementFilter.constructorsIn(component.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getModifiers().contains(Modifier.PUBLIC) && isInjectable(c));
+    }
+
+    private boolean isAnnotated(Element element, String annotation) {
+        return element.getAnnotationMirrors().stream()
+                .anyMatch(a -> ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation));
+    }
+
+    private void writeIndex() {
+        try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX).openWriter()) {
+            for (String name : indexed) writer.write(name + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<String> factoryOf(TypeElement component) {
+        if (component.getKind() != ElementKind.CLASS || !component.getTypeParameters().isEmpty()) return Optional.empty();
+        Set<Modifier> modifiers = component.getModifiers();
+        if (modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.PRIVATE)) return Optional.empty();
+        if (component.getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC)) return Optional.empty();
+        if (!isAccessible(component, component) || inheritsInjectionPoints(component)) return Optional.empty();
+
+        List<String> dependencies = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        String type = component.getQualifiedName().toString();
+
+        Optional<ExecutableElement> constructor = injectConstructor(component);
+        if (constructor.isEmpty() || throwsChecked(constructor.get())) return Optional.empty();
+        Optional<String> arguments = arguments(constructor.get(), component, dependencies);
+        if (arguments.isEmpty()) return Optional.empty();
+        statements.add(type + " instance = new " + type + "(" + arguments.get() + ");");
+
+        for (VariableElement field : ElementFilter.fieldsIn(component.getEnclosedElements())) {
+            if (!isInjectable(field)) continue;
+            if (!isInstanceMember(field) || field.getModifiers().contains(Modifier.FINAL)) return Optional.empty();
+            Optional<String> value = dependency(field, component, dependencies);
+            if (value.isEmpty()) return Optional.empty();
+            statements.add("instance." + field.getSimpleName() + " = " + value.get() + ";");
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(component.getEnclosedElements())) {
+            if (!isInjectable(method)) continue;
+            if (!isInstanceMember(method) || !method.getTypeParameters().isEmpty() || throwsChecked(method)) return Optional.empty();
+            Optional<String> values = arguments(method, component, dependencies);
+            if (values.isEmpty()) return Optional.empty();
+            statements.add("instance." + method.getSimpleName() + "(" + values.get() + ");");
+        }
+        return Optional.of(source(component, dependencies, statements));
+    }
+
+    private Optional<ExecutableElement> injectConstructor(TypeElement component) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(component.getEnclosedElements());
+        List<ExecutableElement> injectable = constructors.stream()
+                .filter(c -> c.getModifiers().contains(Modifier.PUBLIC) && isInjectable(c))
+                .toList();
+        if (injectable.size() > 1) return Optional.empty();
+        if (injectable.size() == 1) return Optional.of(injectable.get(0));
+        return constructors.stream()
+                .filter(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE))
+                .findFirst();
+    }
+
+    private boolean throwsChecked(ExecutableElement executable) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror runtime = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+        TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+        return executable.getThrownTypes().stream().anyMatch(type -> !types.isSubtype(type, runtime) && !types.isSubtype(type, error));
+    }
+
+    private boolean inheritsInjectionPoints(TypeElement component) {
+        TypeMirror superclass = component.getSuperclass();
+        while (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement type = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (type.getQualifiedName().contentEquals("java.lang.Object")) return false;
+            if (type.getEnclosedElements().stream().anyMatch(e -> e.getKind() != ElementKind.CONSTRUCTOR && isInjectable(e)))
+                return true;
+            superclass = type.getSuperclass();
+        }
+        return false;
+    }
+
+    private Optional<String> arguments(ExecutableElement executable, TypeElement component, List<String> dependencies) {
+        StringJoiner arguments = new StringJoiner(", ");
+        for (VariableElement parameter : executable.getParameters()) {
+            Optional<String> argument = dependency(parameter, component, dependencies);
+            if (argument.isEmpty()) return Optional.empty();
+            arguments.add(argument.get());
+        }
+        return Optional.of(arguments.toString());
+    }
+
+    private Optional<String> dependency(VariableElement element, TypeElement component, List<String> dependencies) {
+        TypeMirror type = element.asType();
+        if (type.getKind() != TypeKind.DECLARED || !isResolvable((DeclaredType) type, component)) return Optional.empty();
+
+        List<? extends AnnotationMirror> qualifiers = element.getAnnotationMirrors().stream().filter(this::isQualifier).toList();
+        if (qualifiers.size() > 1) return Optional.empty();
+        String qualifier = null;
+        if (qualifiers.size() == 1) {
+            AnnotationMirror annotation = qualifiers.get(0);
+            if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(NAMED))
+                return Optional.empty();
+            String value = annotation.getElementValues().values().stream()
+                    .map(v -> (String) v.getValue()).findFirst().orElse("");
+            qualifier = DI + ".Qualifiers.named(" + processingEnv.getElementUtils().getConstantExpression(value) + ")";
+        }
+
+        DeclaredType declared = (DeclaredType) type;
+        if (erasure(type).equals("java.util.Map") && !declared.getTypeArguments().isEmpty() && !erasure(declared.getTypeArguments().get(0)).equals("java.lang.String"))
+            return Optional.empty();
+        String ref;
+        if (declared.getTypeArguments().isEmpty())
+            ref = DI + ".ComponentRef.of(" + erasure(type) + ".class" + (qualifier == null ? "" : ", " + qualifier) + ")";
+        else
+            ref = "new " + DI + ".ComponentRef<" + type + ">(" + (qualifier == null ? "" : qualifier) + ") {\n            }";
+        dependencies.add(ref);
+        return Optional.of("(" + type + ") dependencies[" + (dependencies.size() - 1) + "]");
+    }
+
+    private boolean isResolvable(DeclaredType type, TypeElement component) {
+        if (!isAccessible((TypeElement) type.asElement(), component)) return false;
+        for (TypeMirror argument : type.getTypeArguments())
+            if (argument.getKind() != TypeKind.DECLARED || !isResolvable((DeclaredType) argument, component)) return false;
+        return true;
+    }
+
+    private boolean isAccessible(TypeElement type, TypeElement component) {
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(type)
+                .equals(processingEnv.getElementUtils().getPackageOf(component));
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!samePackage && !modifiers.contains(Modifier.PUBLIC)) return false;
+        }
+        return true;
+    }
+
+    private boolean isQualifier(AnnotationMirror annotation) {
+        return annotation.getAnnotationType().asElement().getAnnotationMirrors().stream()
+                .anyMatch(a -> ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().contentEquals(QUALIFIER));
+    }
+
+    private boolean isInjectable(Element element) {
+        return isAnnotated(element, INJECT);
+    }
+
+    private static boolean isInstanceMember(Element element) {
+        return !element.getModifiers().contains(Modifier.STATIC) && !element.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String source(TypeElement component, List<String> dependencies, List<String> statements) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+        String type = component.getQualifiedName().toString();
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(ComponentProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(factoryName(component)).append(" implements ")
+                .append(DI).append(".ComponentFactory<").append(type).append("> {\n")
+                .append("    private static final java.util.List<").append(DI).append(".ComponentRef<?>> DEPENDENCIES = java.util.List.of(");
+        StringJoiner refs = new StringJoiner(",", "\n", "");
+        dependencies.forEach(ref -> refs.add("            " + ref));
+        if (!dependencies.isEmpty()) source.append(refs);
+        source.append(");\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.List<").append(DI).append(".ComponentRef<?>> getDependencies() {\n")
+                .append("        return DEPENDENCIES;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public ").append(type).append(" create(Object[] dependencies) {\n");
+        statements.forEach(statement -> source.append("        ").append(statement).append('\n'));
+        source.append("        return instance;\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private String factoryName(TypeElement component) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1) + SUFFIX;
+    }
+
+    private void write(TypeElement component, String source) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+        String name = (packageName.isEmpty() ? "" : packageName + ".") + factoryName(component);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(name, component).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
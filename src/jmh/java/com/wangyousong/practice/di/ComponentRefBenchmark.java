@@ -0,0 +1,42 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Provider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentRefBenchmark {
+
+    private final NamedLiteral qualifier = new NamedLiteral("qualified");
+
+    @Benchmark
+    public Object ofClass() {
+        return ComponentRef.of(Service.class);
+    }
+
+    @Benchmark
+    public Object ofClassWithQualifier() {
+        return ComponentRef.of(Service.class, qualifier);
+    }
+
+    @Benchmark
+    public Object typeToken() {
+        return new ComponentRef<Provider<Service>>() {
+        };
+    }
+
+    @Benchmark
+    public Object qualifiedTypeToken() {
+        return new ComponentRef<Provider<Service>>(qualifier) {
+        };
+    }
+
+    static class Service {
+    }
+}
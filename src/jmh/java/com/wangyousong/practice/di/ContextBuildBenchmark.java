@@ -0,0 +1,42 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBuildBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int components;
+
+    private NamedLiteral[] qualifiers;
+
+    @Setup
+    public void setUp() {
+        qualifiers = new NamedLiteral[components];
+        for (int i = 0; i < components; i++) qualifiers[i] = new NamedLiteral("component-" + i);
+    }
+
+    @Benchmark
+    public Context bindAndGetContext() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Leaf.class, new Leaf());
+        for (NamedLiteral qualifier : qualifiers) config.bind(Node.class, Node.class, qualifier);
+        return config.getContext();
+    }
+
+    static class Leaf {
+    }
+
+    static class Node {
+        @Inject
+        Leaf leaf;
+    }
+}
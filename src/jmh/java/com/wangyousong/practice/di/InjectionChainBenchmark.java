@@ -0,0 +1,172 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionChainBenchmark {
+    private static final Map<String, Class<?>[]> CHAINS = Map.of(
+            "constructor", new Class<?>[]{C0.class, C1.class, C2.class, C3.class, C4.class, C5.class, C6.class, C7.class},
+            "field", new Class<?>[]{F0.class, F1.class, F2.class, F3.class, F4.class, F5.class, F6.class, F7.class},
+            "method", new Class<?>[]{M0.class, M1.class, M2.class, M3.class, M4.class, M5.class, M6.class, M7.class});
+
+    @Param({"constructor", "field", "method"})
+    String injection;
+
+    private Context context;
+    private ComponentRef<?> top;
+
+    @Setup
+    public void setUp() {
+        ContextConfig config = new ContextConfig();
+        Class<?>[] chain = CHAINS.get(injection);
+        for (Class<?> type : chain) bind(config, type);
+        context = config.getContext();
+        top = ComponentRef.of(chain[chain.length - 1]);
+    }
+
+    private static <T> void bind(ContextConfig config, Class<T> type) {
+        config.bind(type, type);
+    }
+
+    @Benchmark
+    public Object resolveChainOfEight() {
+        return context.get(top).get();
+    }
+
+    public static class C0 {
+    }
+
+    public static class C1 {
+        @Inject
+        public C1(C0 dependency) {
+        }
+    }
+
+    public static class C2 {
+        @Inject
+        public C2(C1 dependency) {
+        }
+    }
+
+    public static class C3 {
+        @Inject
+        public C3(C2 dependency) {
+        }
+    }
+
+    public static class C4 {
+        @Inject
+        public C4(C3 dependency) {
+        }
+    }
+
+    public static class C5 {
+        @Inject
+        public C5(C4 dependency) {
+        }
+    }
+
+    public static class C6 {
+        @Inject
+        public C6(C5 dependency) {
+        }
+    }
+
+    public static class C7 {
+        @Inject
+        public C7(C6 dependency) {
+        }
+    }
+
+    public static class F0 {
+    }
+
+    public static class F1 {
+        @Inject
+        F0 dependency;
+    }
+
+    public static class F2 {
+        @Inject
+        F1 dependency;
+    }
+
+    public static class F3 {
+        @Inject
+        F2 dependency;
+    }
+
+    public static class F4 {
+        @Inject
+        F3 dependency;
+    }
+
+    public static class F5 {
+        @Inject
+        F4 dependency;
+    }
+
+    public static class F6 {
+        @Inject
+        F5 dependency;
+    }
+
+    public static class F7 {
+        @Inject
+        F6 dependency;
+    }
+
+    public static class M0 {
+    }
+
+    public static class M1 {
+        @Inject
+        void install(M0 dependency) {
+        }
+    }
+
+    public static class M2 {
+        @Inject
+        void install(M1 dependency) {
+        }
+    }
+
+    public static class M3 {
+        @Inject
+        void install(M2 dependency) {
+        }
+    }
+
+    public static class M4 {
+        @Inject
+        void install(M3 dependency) {
+        }
+    }
+
+    public static class M5 {
+        @Inject
+        void install(M4 dependency) {
+        }
+    }
+
+    public static class M6 {
+        @Inject
+        void install(M5 dependency) {
+        }
+    }
+
+    public static class M7 {
+        @Inject
+        void install(M6 dependency) {
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectorBenchmark {
+
+    @Param({"reflection", "generated"})
+    String injection;
+
+    private Context context;
+    private final ComponentRef<Service> service = ComponentRef.of(Service.class);
+
+    @Setup
+    public void setUp() {
+        ContextConfig config = new ContextConfig();
+        if (injection.equals("generated")) config.useGeneratedInjectors();
+        config.bind(Repository.class, Repository.class);
+        config.bind(Clock.class, Clock.class);
+        config.bind(Service.class, Service.class);
+        context = config.getContext();
+    }
+
+    @Benchmark
+    public Object resolve() {
+        return context.get(service).get();
+    }
+
+    static class Clock {
+    }
+
+    static class Repository {
+        @Inject
+        Clock clock;
+    }
+
+    static class Service {
+        final Repository repository;
+        @Inject
+        Clock clock;
+        Repository another;
+
+        @Inject
+        public Service(Repository repository) {
+            this.repository = repository;
+        }
+
+        @Inject
+        void install(Repository another) {
+            this.another = another;
+        }
+    }
+}
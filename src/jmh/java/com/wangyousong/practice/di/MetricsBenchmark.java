@@ -0,0 +1,50 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final ComponentRef<Service> service = ComponentRef.of(Service.class);
+    private final ComponentRef<Repository> singleton = ComponentRef.of(Repository.class);
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Context context;
+
+    @Setup
+    public void setUp() {
+        ContextConfig config = new ContextConfig();
+        if (metrics) config.collectMetrics();
+        config.bind(Repository.class, Repository.class, new SingletonLiteral());
+        config.bind(Service.class, Service.class);
+        context = config.getContext();
+    }
+
+    @Benchmark
+    public Object resolve() {
+        return context.get(service).get();
+    }
+
+    @Benchmark
+    public Object singleton() {
+        return context.get(singleton).get();
+    }
+
+    static class Repository {
+    }
+
+    static class Service {
+        @Inject
+        Repository repository;
+    }
+}
@@ -0,0 +1,23 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Named;
+
+import java.lang.annotation.Annotation;
+
+record NamedLiteral(String value) implements Named {
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Named.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Named named && value.equals(named.value());
+    }
+
+    @Override
+    public int hashCode() {
+        return "value".hashCode() * 127 ^ value.hashCode();
+    }
+}
@@ -0,0 +1,196 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverrideDetectionBenchmark {
+
+    @Param({"wide", "deep"})
+    String hierarchy;
+
+    @Param({"hashed", "pairwise"})
+    String detection;
+
+    private Class<?> component;
+
+    @Setup
+    public void setUp() throws IllegalAccessException {
+        component = hierarchy.equals("wide") ? wide() : deep();
+    }
+
+    @Benchmark
+    public List<Method> detectOverrides() {
+        return detection.equals("hashed") ? InjectionProvider.injectMethods(component) : pairwise(component);
+    }
+
+    // the comparison of every candidate with every collected and declared method that hashed signatures replaced
+    private static List<Method> pairwise(Class<?> component) {
+        List<Method> injectMethods = new ArrayList<>();
+        for (Class<?> current = component; current != Object.class; current = current.getSuperclass())
+            injectMethods.addAll(stream(current.getDeclaredMethods())
+                    .filter(m -> m.isAnnotationPresent(Inject.class))
+                    .filter(m -> injectMethods.stream().noneMatch(o -> isOverride(m, o)))
+                    .filter(m -> stream(component.getDeclaredMethods())
+                            .filter(o -> !o.isAnnotationPresent(Inject.class))
+                            .noneMatch(o -> isOverride(m, o)))
+                    .toList());
+        Collections.reverse(injectMethods);
+        return injectMethods;
+    }
+
+    private static boolean isOverride(Method m, Method o) {
+        return o.getName().equals(m.getName()) && Arrays.equals(o.getParameterTypes(), m.getParameterTypes());
+    }
+
+    // a base with 128 inject methods, all overridden with @Inject by a subclass adding 64 more
+    private static Class<?> wide() throws IllegalAccessException {
+        Class<?> base = define("WideBase", Object.class, methods("install", 128));
+        List<String> methods = methods("install", 128);
+        methods.addAll(methods("setup", 64));
+        return define("Wide", base, methods);
+    }
+
+    // 16 levels, each overriding the same 16 inject methods and adding 4 of its own
+    private static Class<?> deep() throws IllegalAccessException {
+        Class<?> current = Object.class;
+        for (int level = 0; level < 16; level++) {
+            List<String> methods = methods("install", 16);
+            methods.addAll(methods("level" + level + "Setup", 4));
+            current = define("Deep" + level, current, methods);
+        }
+        return current;
+    }
+
+    private static List<String> methods(String prefix, int count) {
+        List<String> methods = new ArrayList<>();
+        for (int i = 0; i < count; i++) methods.add(prefix + i);
+        return methods;
+    }
+
+    private static Class<?> define(String name, Class<?> superClass, List<String> methods) throws IllegalAccessException {
+        String className = OverrideDetectionBenchmark.class.getName() + "$" + name;
+        return MethodHandles.lookup().defineClass(new HierarchyWriter().write(className, superClass, methods));
+    }
+
+    // writes a class with a default constructor and empty void methods annotated with @Inject
+    private static class HierarchyWriter {
+        private static final int ALOAD_0 = 0x2a, INVOKESPECIAL = 0xb7, RETURN = 0xb1, ACC_SUPER = 0x0020;
+        private static final int UTF8 = 1, CLASS = 7, METHODREF = 10, NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> entries = new HashMap<>();
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private int count = 1;
+
+        byte[] write(String className, Class<?> superClass, List<String> methods) {
+            String superName = superClass.getName().replace('.', '/');
+            int thisIndex = type(className.replace('.', '/')), superIndex = type(superName);
+            int code = utf8("Code"), annotations = utf8("RuntimeVisibleAnnotations"), inject = utf8("Ljakarta/inject/Inject;");
+            int init = utf8("<init>"), descriptor = utf8("()V");
+            int superInit = entry(METHODREF, type(superName), entry(NAME_AND_TYPE, init, descriptor));
+            int[] names = methods.stream().mapToInt(this::utf8).toArray();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61);
+                out.writeShort(count);
+                out.write(pool.toByteArray());
+                out.writeShort(ACC_SUPER);
+                out.writeShort(thisIndex);
+                out.writeShort(superIndex);
+                out.writeShort(0);
+                out.writeShort(0);
+                out.writeShort(1 + names.length);
+                writeMethod(out, init, descriptor, 1, code, 1,
+                        new byte[]{ALOAD_0, (byte) INVOKESPECIAL, (byte) (superInit >> 8), (byte) superInit, (byte) RETURN});
+                for (int name : names) {
+                    writeMethod(out, name, descriptor, 2, code, 0, new byte[]{(byte) RETURN});
+                    out.writeShort(annotations);
+                    out.writeInt(6);
+                    out.writeShort(1);
+                    out.writeShort(inject);
+                    out.writeShort(0);
+                }
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        // writes the Code attribute first, the caller appends the remaining attributes
+        private static void writeMethod(DataOutputStream out, int name, int descriptor, int attributes, int code,
+                                        int maxStack, byte[] instructions) throws IOException {
+            out.writeShort(0);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(attributes);
+            out.writeShort(code);
+            out.writeInt(12 + instructions.length);
+            out.writeShort(maxStack);
+            out.writeShort(1);
+            out.writeInt(instructions.length);
+            out.write(instructions);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private int utf8(String value) {
+            return entries.computeIfAbsent("U" + value, key -> add(out -> {
+                out.writeByte(UTF8);
+                out.writeUTF(value);
+            }));
+        }
+
+        private int type(String internalName) {
+            return entry(CLASS, utf8(internalName));
+        }
+
+        private int entry(int tag, int... indexes) {
+            StringBuilder key = new StringBuilder().append(tag);
+            for (int index : indexes) key.append(':').append(index);
+            return entries.computeIfAbsent(key.toString(), k -> add(out -> {
+                out.writeByte(tag);
+                for (int index : indexes) out.writeShort(index);
+            }));
+        }
+
+        private int add(Entry entry) {
+            try {
+                entry.write(poolOut);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count++;
+        }
+
+        @FunctionalInterface
+        private interface Entry {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
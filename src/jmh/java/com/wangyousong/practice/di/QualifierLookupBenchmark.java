@@ -0,0 +1,84 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Named;
+import jakarta.inject.Qualifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QualifierLookupBenchmark {
+
+    private final Service service = new Service();
+    private ComponentRef<Service> unqualified;
+    private ComponentRef<Service> namedLiteral;
+    private ComponentRef<Service> namedAnnotation;
+    private ComponentRef<Service> memberAnnotation;
+    private Annotation named;
+    private Annotation region;
+    private Context context;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        named = Annotated.class.getDeclaredField("named").getAnnotation(Named.class);
+        region = Annotated.class.getDeclaredField("region").getAnnotation(Region.class);
+
+        ContextConfig config = new ContextConfig();
+        config.bind(Service.class, service);
+        config.bind(Service.class, service, new NamedLiteral("primary"), region);
+        context = config.getContext();
+
+        unqualified = ComponentRef.of(Service.class);
+        namedLiteral = ComponentRef.of(Service.class, new NamedLiteral("primary"));
+        namedAnnotation = ComponentRef.of(Service.class, named);
+        memberAnnotation = ComponentRef.of(Service.class, region);
+    }
+
+    @Benchmark
+    public Object unqualified() {
+        return context.get(unqualified).get();
+    }
+
+    @Benchmark
+    public Object namedLiteral() {
+        return context.get(namedLiteral).get();
+    }
+
+    @Benchmark
+    public Object namedAnnotation() {
+        return context.get(namedAnnotation).get();
+    }
+
+    @Benchmark
+    public Object memberAnnotation() {
+        return context.get(memberAnnotation).get();
+    }
+
+    @Qualifier
+    @Retention(RUNTIME)
+    @interface Region {
+        String value();
+
+        int zone();
+    }
+
+    static class Annotated {
+        @Named("primary")
+        Object named;
+
+        @Region(value = "eu", zone = 2)
+        Object region;
+    }
+
+    static class Service {
+    }
+}
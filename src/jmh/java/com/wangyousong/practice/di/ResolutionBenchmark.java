@@ -0,0 +1,68 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolutionBenchmark {
+
+    private final ComponentRef<Service> plain = ComponentRef.of(Service.class);
+    private final ComponentRef<Service> qualified = ComponentRef.of(Service.class, new NamedLiteral("qualified"));
+    private final ComponentRef<Provider<Service>> provider = new ComponentRef<>() {
+    };
+    private final ComponentRef<Repository> singleton = ComponentRef.of(Repository.class);
+
+    private Context context;
+    private Provider<Service> injectedProvider;
+
+    @Setup
+    public void setUp() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Repository.class, Repository.class, new SingletonLiteral());
+        config.bind(Service.class, Service.class);
+        config.bind(Service.class, Service.class, new NamedLiteral("qualified"));
+        context = config.getContext();
+        injectedProvider = context.get(provider).get();
+    }
+
+    @Benchmark
+    public Object plain() {
+        return context.get(plain).get();
+    }
+
+    @Benchmark
+    public Object qualified() {
+        return context.get(qualified).get();
+    }
+
+    @Benchmark
+    public Object provider() {
+        return context.get(provider).get();
+    }
+
+    @Benchmark
+    public Object providerGet() {
+        return injectedProvider.get();
+    }
+
+    @Benchmark
+    public Object singleton() {
+        return context.get(singleton).get();
+    }
+
+    static class Repository {
+    }
+
+    static class Service {
+        @Inject
+        Repository repository;
+    }
+}
@@ -0,0 +1,13 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Singleton;
+
+import java.lang.annotation.Annotation;
+
+record SingletonLiteral() implements Singleton {
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Singleton.class;
+    }
+}
@@ -4,4 +4,17 @@ import java.lang.annotation.Annotation;
 
 public record Component(Class<?> type, Annotation qualifiers) {
 
+    public Component {
+        qualifiers = Qualifiers.canonical(qualifiers);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Component that && type == that.type && qualifiers == that.qualifiers;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + System.identityHashCode(qualifiers);
+    }
 }
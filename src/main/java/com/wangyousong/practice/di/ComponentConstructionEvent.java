@@ -0,0 +1,41 @@
+package com.wangyousong.practice.di;
+
+import jdk.jfr.*;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Name("com.wangyousong.practice.di.ComponentConstruction")
+@Label("Component Construction")
+@Category("Dependency Injection")
+@Description("Construction of a component instance, including its dependencies")
+@Enabled(false)
+@StackTrace(false)
+class ComponentConstructionEvent extends Event {
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Qualifiers")
+    @Description("Qualifiers of every binding sharing this construction, in binding order")
+    String qualifiers;
+
+    @Label("Nesting Depth")
+    int depth;
+
+    void enter(Class<?> componentType, List<Annotation> qualifiers) {
+        this.componentType = componentType;
+        this.qualifiers = qualifiers.isEmpty() ? null
+                : qualifiers.stream().map(Objects::toString).collect(Collectors.joining(", "));
+        this.depth = DEPTH.get()[0]++;
+        begin();
+    }
+
+    void exit() {
+        DEPTH.get()[0]--;
+        commit();
+    }
+}
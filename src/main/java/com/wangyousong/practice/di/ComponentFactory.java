@@ -0,0 +1,9 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+public interface ComponentFactory<T> {
+    List<ComponentRef<?>> getDependencies();
+
+    T create(Object[] dependencies);
+}
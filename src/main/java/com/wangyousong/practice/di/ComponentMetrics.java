@@ -0,0 +1,72 @@
+package com.wangyousong.practice.di;
+
+import javax.management.ConstructorParameters;
+
+public final class ComponentMetrics {
+    private final String type;
+    private final String qualifier;
+    private final long resolutions;
+    private final long constructions;
+    private final long singletonHits;
+    private final int depth;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    @ConstructorParameters({"type", "qualifier", "resolutions", "constructions", "singletonHits", "depth",
+            "meanNanos", "p50Nanos", "p99Nanos", "maxNanos"})
+    public ComponentMetrics(String type, String qualifier, long resolutions, long constructions, long singletonHits,
+                            int depth, long meanNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+        this.type = type;
+        this.qualifier = qualifier;
+        this.resolutions = resolutions;
+        this.constructions = constructions;
+        this.singletonHits = singletonHits;
+        this.depth = depth;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getQualifier() {
+        return qualifier;
+    }
+
+    public long getResolutions() {
+        return resolutions;
+    }
+
+    public long getConstructions() {
+        return constructions;
+    }
+
+    public long getSingletonHits() {
+        return singletonHits;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
@@ -10,4 +10,11 @@ interface ComponentProvider<T> {
     default List<ComponentRef<?>> getDependencies() {
         return of();
     }
+
+    default void compile() {
+    }
+
+    default ComponentProvider<T> link(Linker linker, Component component) {
+        return this;
+    }
 }
@@ -1,51 +1,122 @@
 package com.wangyousong.practice.di;
 
+import jakarta.inject.Named;
+
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ComponentRef<ComponentType> {
+    private static final Object NO_QUALIFIER = new Object();
+    private static final ClassValue<Type> TYPE_ARGUMENTS = new ClassValue<>() {
+        @Override
+        protected Type computeValue(Class<?> type) {
+            return ((ParameterizedType) type.getGenericSuperclass()).getActualTypeArguments()[0];
+        }
+    };
+    private static final ClassValue<ComponentRef<?>> UNQUALIFIED = new ClassValue<>() {
+        @Override
+        protected ComponentRef<?> computeValue(Class<?> type) {
+            return new ComponentRef<>(type, null);
+        }
+    };
+    private static final ClassValue<Map<Object, ComponentRef<?>>> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected Map<Object, ComponentRef<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final ClassValue<Map<Type, Map<Object, ComponentRef<?>>>> BY_CONTAINER = new ClassValue<>() {
+        @Override
+        protected Map<Type, Map<Object, ComponentRef<?>>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private Type container;
     private Component component;
+    private int hash;
 
     private ComponentRef(Type type, Annotation qualifier) {
         init(type, qualifier);
     }
 
+    private ComponentRef(Component component, Type container) {
+        this.container = container;
+        this.component = component;
+        this.hash = hashOf(container, component);
+    }
+
     protected ComponentRef() {
-        Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-        init(type, null);
+        copy(cached(TYPE_ARGUMENTS.get(getClass()), null));
     }
 
     public ComponentRef(Annotation qualifier) {
-        Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
-        init(type, qualifier);
+        copy(cached(TYPE_ARGUMENTS.get(getClass()), qualifier));
     }
 
+    @SuppressWarnings("unchecked")
     public static <ComponentType> ComponentRef<ComponentType> of(Class<ComponentType> component) {
-        return new ComponentRef<>(component, null);
+        return (ComponentRef<ComponentType>) cached(component, null);
     }
 
+    @SuppressWarnings("unchecked")
     public static <ComponentType> ComponentRef<ComponentType> of(Class<ComponentType> component, Annotation qualifier) {
-        return new ComponentRef<>(component, qualifier);
+        return (ComponentRef<ComponentType>) cached(component, qualifier);
     }
 
     public static ComponentRef of(Type type) {
-        return new ComponentRef(type, null);
+        return cached(type, null);
     }
 
     public static ComponentRef of(Type type, Annotation qualifier) {
-        return new ComponentRef(type, qualifier);
+        return cached(type, qualifier);
+    }
+
+    static ComponentRef<?> of(Type container, Component component) {
+        return new ComponentRef<>(component, container);
+    }
+
+    private static ComponentRef<?> cached(Type type, Annotation qualifier) {
+        if (qualifier == null && type instanceof Class<?> component) return UNQUALIFIED.get(component);
+        Map<Object, ComponentRef<?>> refs = type instanceof ParameterizedType container
+                ? BY_CONTAINER.get(componentOf(container)).computeIfAbsent(container.getRawType(), t -> new ConcurrentHashMap<>())
+                : BY_CLASS.get((Class<?>) type);
+        Object key = qualifier == null ? NO_QUALIFIER : qualifier instanceof Named named ? named.value() : Qualifiers.canonical(qualifier);
+        ComponentRef<?> ref = refs.get(key);
+        if (ref != null) return ref;
+        ComponentRef<?> created = new ComponentRef<>(type, qualifier);
+        ref = refs.putIfAbsent(key, created);
+        return ref != null ? ref : created;
     }
 
     private void init(Type type, Annotation qualifier) {
         if (type instanceof ParameterizedType container) {
             this.container = container.getRawType();
-            this.component = new Component((Class<ComponentType>) container.getActualTypeArguments()[0], qualifier);
+            this.component = new Component(componentOf(container), qualifier);
         } else {
             this.component = new Component((Class<ComponentType>) type, qualifier);
         }
+        this.hash = hashOf(container, component);
+    }
+
+    private static Class<?> componentOf(ParameterizedType container) {
+        Type[] arguments = container.getActualTypeArguments();
+        if (container.getRawType() == Map.class && arguments[0] != String.class) throw new IllegalComponentException();
+        return (Class<?>) arguments[arguments.length - 1];
+    }
+
+    private void copy(ComponentRef<?> resolved) {
+        this.container = resolved.container;
+        this.component = resolved.component;
+        this.hash = resolved.hash;
+    }
+
+    private static int hashOf(Type container, Component component) {
+        return 31 * Objects.hashCode(container) + component.hashCode();
     }
 
     public Type getContainer() {
@@ -63,13 +134,12 @@ public class ComponentRef<ComponentType> {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        ComponentRef<?> that = (ComponentRef<?>) o;
-        return Objects.equals(container, that.container) && component.equals(that.component);
+        if (!(o instanceof ComponentRef<?> that)) return false;
+        return hash == that.hash && Objects.equals(container, that.container) && component.equals(that.component);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(container, component);
+        return hash;
     }
 }
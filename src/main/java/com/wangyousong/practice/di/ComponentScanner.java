@@ -0,0 +1,270 @@
+package com.wangyousong.practice.di;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class ComponentScanner {
+    static final String INDEX = "META-INF/di/components";
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final int ACC_PUBLIC = 0x0001, ACC_STATIC = 0x0008, ACC_INTERFACE = 0x0200, ACC_ABSTRACT = 0x0400,
+            ACC_ANNOTATION = 0x2000, ACC_ENUM = 0x4000;
+    private static final String INJECT = "Ljakarta/inject/Inject;";
+    private static final String SINGLETON = "Ljakarta/inject/Singleton;";
+
+    static List<Class<?>> discover(ClassLoader loader, String... packages) {
+        List<Class<?>> components = new ArrayList<>();
+        for (String name : find(loader, packages)) {
+            try {
+                components.add(Class.forName(name, false, loader));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalComponentException();
+            }
+        }
+        return components;
+    }
+
+    static List<String> find(ClassLoader loader, String... packages) {
+        Map<String, URL> indexes = indexes(loader);
+        Set<String> names = new TreeSet<>();
+        List<ClassFile> classFiles = new ArrayList<>();
+        try {
+            for (String root : roots(loader, packages)) {
+                URL index = indexes.get(root);
+                if (index != null) names.addAll(indexed(index, packages));
+                else classFiles.addAll(classFilesIn(root, packages));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        names.addAll(qualifiedNames(classFiles));
+        return List.copyOf(names);
+    }
+
+    static List<String> indexed(ClassLoader loader, String... packages) {
+        Set<String> names = new TreeSet<>();
+        for (URL index : indexes(loader).values()) names.addAll(indexed(index, packages));
+        return List.copyOf(names);
+    }
+
+    static List<String> scan(ClassLoader loader, String... packages) {
+        List<ClassFile> classFiles = new ArrayList<>();
+        try {
+            for (String root : roots(loader, packages)) classFiles.addAll(classFilesIn(root, packages));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return qualifiedNames(classFiles).stream().sorted().toList();
+    }
+
+    private static List<String> qualifiedNames(List<ClassFile> classFiles) {
+        return classFiles.parallelStream().map(ClassFile::qualifiedName).flatMap(Optional::stream).toList();
+    }
+
+    private static Map<String, URL> indexes(ClassLoader loader) {
+        Map<String, URL> indexes = new LinkedHashMap<>();
+        for (URL index : resources(loader, INDEX)) indexes.put(rootOf(index, INDEX), index);
+        return indexes;
+    }
+
+    private static Set<String> indexed(URL index, String... packages) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), UTF_8))) {
+            Set<String> names = new TreeSet<>();
+            reader.lines().map(String::trim)
+                    .filter(name -> !name.isEmpty() && inPackages(name, packages))
+                    .forEach(names::add);
+            return names;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<String> roots(ClassLoader loader, String... packages) {
+        Set<String> roots = new LinkedHashSet<>(indexes(loader).keySet());
+        for (String packageName : packages) {
+            String path = packageName.replace('.', '/');
+            for (URL url : resources(loader, path)) roots.add(rootOf(url, path));
+        }
+        for (URL manifest : resources(loader, MANIFEST))
+            if (manifest.getProtocol().equals("jar")) roots.add(rootOf(manifest, MANIFEST));
+        for (ClassLoader current = loader; current != null; current = current.getParent())
+            if (current instanceof URLClassLoader urls)
+                for (URL url : urls.getURLs()) if (url.getPath().endsWith(".jar")) roots.add("jar:" + url + "!/");
+        return roots;
+    }
+
+    private static List<URL> resources(ClassLoader loader, String name) {
+        try {
+            return Collections.list(loader.getResources(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String rootOf(URL url, String path) {
+        String location = url.toString();
+        if (location.endsWith("/")) location = location.substring(0, location.length() - 1);
+        return location.substring(0, location.length() - path.length());
+    }
+
+    private static boolean inPackages(String name, String... packages) {
+        return Arrays.stream(packages).anyMatch(packageName -> name.startsWith(packageName + "."));
+    }
+
+    private static List<ClassFile> classFilesIn(String root, String... packages) throws IOException {
+        List<String> prefixes = Arrays.stream(packages).map(packageName -> packageName.replace('.', '/') + "/").toList();
+        if (root.startsWith("jar:")) {
+            JarFile jar = ((JarURLConnection) new URL(root).openConnection()).getJarFile();
+            return jar.stream()
+                    .filter(entry -> entry.getName().endsWith(".class") && prefixes.stream().anyMatch(entry.getName()::startsWith))
+                    .map(entry -> (ClassFile) () -> {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            return in.readAllBytes();
+                        }
+                    })
+                    .toList();
+        }
+        List<ClassFile> classFiles = new ArrayList<>();
+        try {
+            Path base = Path.of(new URL(root).toURI());
+            for (String prefix : prefixes) {
+                Path directory = base.resolve(prefix);
+                if (!Files.isDirectory(directory)) continue;
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.filter(file -> file.toString().endsWith(".class"))
+                            .forEach(file -> classFiles.add(() -> Files.readAllBytes(file)));
+                }
+            }
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return List.of();
+        }
+        return classFiles;
+    }
+
+    @FunctionalInterface
+    interface ClassFile {
+        byte[] bytes() throws IOException;
+
+        default Optional<String> qualifiedName() {
+            try {
+                return ComponentScanner.qualifiedName(bytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    static Optional<String> qualifiedName(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE) return Optional.empty();
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        for (int index = 1; index < count; index++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[index] = in.readUTF();
+                case 7 -> classNames[index] = in.readUnsignedShort();
+                case 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    index++;
+                }
+                default -> throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+
+        int access = in.readUnsignedShort();
+        int thisClass = in.readUnsignedShort();
+        in.readUnsignedShort();
+        in.skipNBytes(2L * in.readUnsignedShort());
+        if ((access & (ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION | ACC_ENUM)) != 0) return Optional.empty();
+
+        for (int fields = in.readUnsignedShort(); fields > 0; fields--) {
+            in.skipNBytes(6);
+            skipAttributes(in);
+        }
+        boolean injectConstructor = false;
+        for (int methods = in.readUnsignedShort(); methods > 0; methods--) {
+            int methodAccess = in.readUnsignedShort();
+            boolean constructor = "<init>".equals(utf8[in.readUnsignedShort()]) && (methodAccess & ACC_PUBLIC) != 0;
+            in.readUnsignedShort();
+            for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+                String name = utf8[in.readUnsignedShort()];
+                int length = in.readInt();
+                if (constructor && "RuntimeVisibleAnnotations".equals(name))
+                    injectConstructor |= annotations(in, utf8).contains(INJECT);
+                else in.skipNBytes(length);
+            }
+        }
+        boolean singleton = false;
+        for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                singleton = annotations(in, utf8).contains(SINGLETON);
+            } else if ("InnerClasses".equals(name)) {
+                for (int classes = in.readUnsignedShort(); classes > 0; classes--) {
+                    int inner = in.readUnsignedShort(), outer = in.readUnsignedShort();
+                    in.readUnsignedShort();
+                    int flags = in.readUnsignedShort();
+                    if (inner == thisClass && (outer == 0 || (flags & ACC_STATIC) == 0)) return Optional.empty();
+                }
+            } else {
+                in.skipNBytes(length);
+            }
+        }
+        if (!injectConstructor && !singleton) return Optional.empty();
+        return Optional.of(utf8[classNames[thisClass]].replace('/', '.'));
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        for (int attributes = in.readUnsignedShort(); attributes > 0; attributes--) {
+            in.readUnsignedShort();
+            in.skipNBytes(in.readInt());
+        }
+    }
+
+    private static Set<String> annotations(DataInputStream in, String[] utf8) throws IOException {
+        Set<String> types = new HashSet<>();
+        for (int annotations = in.readUnsignedShort(); annotations > 0; annotations--)
+            types.add(annotation(in, utf8));
+        return types;
+    }
+
+    private static String annotation(DataInputStream in, String[] utf8) throws IOException {
+        String type = utf8[in.readUnsignedShort()];
+        for (int pairs = in.readUnsignedShort(); pairs > 0; pairs--) {
+            in.readUnsignedShort();
+            skipElementValue(in, utf8);
+        }
+        return type;
+    }
+
+    private static void skipElementValue(DataInputStream in, String[] utf8) throws IOException {
+        switch (in.readUnsignedByte()) {
+            case 'e' -> in.skipNBytes(4);
+            case '@' -> annotation(in, utf8);
+            case '[' -> {
+                for (int values = in.readUnsignedShort(); values > 0; values--) skipElementValue(in, utf8);
+            }
+            default -> in.skipNBytes(2);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.wangyousong.practice.di;
 
-import jakarta.inject.Provider;
 import jakarta.inject.Qualifier;
 import jakarta.inject.Scope;
 import jakarta.inject.Singleton;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -14,22 +18,53 @@ import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.groupingBy;
 
 public class ContextConfig {
-    private final Map<Component, ComponentProvider<?>> components = new HashMap<>();
+    private final Map<Component, ComponentProvider<?>> components = new LinkedHashMap<>();
     private final Map<Class<?>, ScopeProvider> scopes = new HashMap<>();
+    private final Map<Component, Binding> bindings = new HashMap<>();
+    private boolean generatedInjectors;
+    private boolean deferProviders;
+    private ForkJoinPool eagerSingletons;
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
+    private ContextMetrics metrics;
+    private StartupProfile profile;
+    private DependencyGraph restored;
+    private DependencyGraph validated;
+    private ContextSnapshot reusable;
+    private boolean relink;
+    private Set<Component> inherited = Set.of();
+    private final Set<Component> changed = new HashSet<>();
+    private final AtomicReference<ContextSnapshot> published = new AtomicReference<>();
+    private final ContextSnapshot parent;
 
     public ContextConfig() {
+        this((ContextSnapshot) null);
+    }
+
+    public ContextConfig(Context parent) {
+        this(snapshotOf(parent));
+    }
+
+    private ContextConfig(ContextSnapshot parent) {
+        this.parent = parent;
         scope(Singleton.class, SingletonProvider::new);
+        scope(RequestScoped.class, provider -> new LocalScopeProvider<>(provider, LocalScope.REQUEST));
+        scope(ThreadScoped.class, provider -> new LocalScopeProvider<>(provider, LocalScope.THREAD));
+    }
+
+    private static ContextSnapshot snapshotOf(Context parent) {
+        if (parent instanceof ContextSnapshot snapshot) return snapshot;
+        throw new IllegalArgumentException("parent must be created by ContextConfig.getContext()");
     }
 
     public <T> void bind(Class<T> type, T instance) {
-        components.put(new Component(type, null), (ComponentProvider<T>) context -> instance);
+        bind(new Component(type, null), (ComponentProvider<T>) context -> instance);
     }
 
     public <T> void bind(Class<T> type, T instance, Annotation... qualifiers) {
         if (stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
             throw new IllegalComponentException();
         for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), context -> instance);
+            bind(new Component(type, qualifier), (ComponentProvider<T>) context -> instance);
     }
 
     public <T, Implementation extends T> void bind(Class<T> type, Class<Implementation> implementation) {
@@ -37,29 +72,87 @@ public class ContextConfig {
     }
 
     public <T, Implementation extends T> void bind(Class<T> type, Class<Implementation> implementation, Annotation... annotations) {
-        Map<? extends Class<?>, List<Annotation>> annotationGroups = stream(annotations).collect(groupingBy(this::typeOf, Collectors.toList()));
+        bind(type, implementation, annotations, deferProviders, false);
+    }
 
-        if (annotationGroups.containsKey(Illegal.class)) throw new IllegalComponentException();
+    public <T> void bindInto(Class<T> type, T instance, Annotation... qualifiers) {
+        if (stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
+            throw new IllegalComponentException();
+        bind(new Component(type, contribution(List.of(qualifiers))), (ComponentProvider<T>) context -> instance);
+    }
 
-        bind(type,
-                annotationGroups.getOrDefault(Qualifier.class, List.of()),
-                createScopeProvider(implementation, annotationGroups.getOrDefault(Scope.class, List.of())));
+    public <T, Implementation extends T> void bindInto(Class<T> type, Class<Implementation> implementation) {
+        bindInto(type, implementation, implementation.getAnnotations());
+    }
+
+    public <T, Implementation extends T> void bindInto(Class<T> type, Class<Implementation> implementation, Annotation... annotations) {
+        bind(type, implementation, annotations, deferProviders, true);
     }
 
-    private <T> ComponentProvider<?> createScopeProvider(Class<T> implementation, List<Annotation> scopes) {
+    private static Annotation contribution(List<Annotation> qualifiers) {
+        if (qualifiers.size() > 1) throw new IllegalComponentException();
+        return new Multibinding.Contribution(qualifiers.isEmpty() ? null : qualifiers.get(0));
+    }
+
+    private <T, Implementation extends T> void bind(Class<T> type, Class<Implementation> implementation, Annotation[] annotations,
+                                                    boolean defer, boolean contribute) {
+        Map<? extends Class<?>, List<Annotation>> annotationGroups = stream(annotations).collect(groupingBy(this::typeOf, Collectors.toList()));
+
+        if (annotationGroups.containsKey(Illegal.class)) throw new IllegalComponentException();
+
+        List<Annotation> scopes = annotationGroups.getOrDefault(Scope.class, List.of());
         if (scopes.size() > 1) throw new IllegalComponentException();
-        ComponentProvider<T> injectionProvider = new InjectionProvider<>(implementation);
-        return scopes.stream()
+        Binding binding = new Binding(implementation, scopes.stream()
                 .findFirst()
                 .or(() -> scopeFromType(implementation))
-                .<ComponentProvider<?>>map(s -> getScopeProvider(s, injectionProvider))
-                .orElse(injectionProvider);
+                .map(Annotation::annotationType)
+                .orElse(null));
+
+        List<Annotation> qualifiers = annotationGroups.getOrDefault(Qualifier.class, List.of());
+        bind(type,
+                contribute ? List.of(contribution(qualifiers)) : qualifiers,
+                binding,
+                createScopeProvider(binding.scope(), providerOf(implementation, defer)));
+    }
+
+    private static <T> ComponentProvider<T> providerOf(Class<T> implementation, boolean defer) {
+        if (defer) return new DeferredProvider<>(implementation);
+        return FactoryProvider.of(implementation).orElseGet(() -> new InjectionProvider<>(implementation));
+    }
+
+    public void discover(String... packages) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        for (Class<?> component : ComponentScanner.discover(loader != null ? loader : getClass().getClassLoader(), packages))
+            bindDiscovered(component);
+    }
+
+    private <T> void bindDiscovered(Class<T> component) {
+        bind(component, component, component.getAnnotations(), true, false);
+    }
+
+    private ComponentProvider<?> createScopeProvider(Class<? extends Annotation> scope, ComponentProvider<?> provider) {
+        if (scope == null) return provider;
+        if (!scopes.containsKey(scope)) throw new IllegalComponentException();
+        return scopes.get(scope).create(provider);
     }
 
-    private <T> void bind(Class<T> type, List<Annotation> qualifiers, ComponentProvider<?> provider) {
-        if (qualifiers.isEmpty()) components.put(new Component(type, null), provider);
+    private <T> void bind(Class<T> type, List<Annotation> qualifiers, Binding binding, ComponentProvider<?> provider) {
+        if (qualifiers.isEmpty()) bind(new Component(type, null), binding, provider);
         for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), provider);
+            bind(new Component(type, qualifier), binding, provider);
+    }
+
+    private void bind(Component component, ComponentProvider<?> provider) {
+        components.put(component, provider);
+        bindings.remove(component);
+        changed.add(component);
+    }
+
+    private void bind(Component component, Binding binding, ComponentProvider<?> provider) {
+        components.put(component, provider);
+        bindings.put(component, binding);
+        changed.add(component);
+        restored = null;
     }
 
     private static <T> Optional<Annotation> scopeFromType(Class<T> implementation) {
@@ -76,49 +169,170 @@ public class ContextConfig {
     private @interface Illegal {
     }
 
-    private ComponentProvider<?> getScopeProvider(Annotation scope, ComponentProvider<?> provider) {
-        if (!scopes.containsKey(scope.annotationType())) throw new IllegalComponentException();
-        return scopes.get(scope.annotationType()).create(provider);
-    }
-
     public <ScopeType extends Annotation> void scope(Class<ScopeType> scope, ScopeProvider provider) {
         scopes.put(scope, provider);
     }
 
+    public void useGeneratedInjectors() {
+        generatedInjectors = true;
+        validated = null;
+        relink = true;
+    }
+
+    public void deferProviders() {
+        deferProviders = true;
+    }
+
+    public void eagerSingletons() {
+        eagerSingletons(ForkJoinPool.commonPool());
+    }
+
+    public void eagerSingletons(ForkJoinPool pool) {
+        eagerSingletons = pool;
+    }
+
+    public void asyncExecutor(Executor executor) {
+        asyncExecutor = executor;
+        validated = null;
+        relink = true;
+    }
+
+    public ContextMetrics collectMetrics() {
+        if (metrics == null) metrics = new ContextMetrics();
+        validated = null;
+        relink = true;
+        return metrics;
+    }
+
+    public StartupProfile profileStartup() {
+        if (profile == null) profile = new StartupProfile();
+        validated = null;
+        relink = true;
+        return profile;
+    }
+
+    public void export(Path file) throws IOException {
+        ContextImage.write(file, new DependencyGraph(components, parent), bindings, components);
+    }
+
+    public void restore(Path file) throws IOException {
+        ContextImage image = ContextImage.read(file);
+        Map<ComponentProvider<?>, ComponentProvider<?>> scoped = new IdentityHashMap<>();
+        for (ContextImage.Entry entry : image.entries())
+            if (entry.binding() != null)
+                bind(entry.component(), entry.binding(),
+                        scoped.computeIfAbsent(entry.provider(), provider -> createScopeProvider(entry.binding().scope(), provider)));
+        restored = image.current() ? DependencyGraph.trusted(components, image.levels()) : null;
+        validated = null;
+        reusable = null;
+    }
+
     public Context getContext() {
-        components.keySet().forEach(component -> checkDependencies(component, new Stack<>()));
+        ContextValidationEvent validation = new ContextValidationEvent();
+        validation.begin();
+        Map<Component, ComponentProvider<?>> linkable = linkable();
+        boolean reuse = restored != null && restored.covers(linkable.keySet());
+        DependencyGraph graph = reuse ? restored
+                : validated != null ? validated.revalidate(linkable, changed)
+                : new DependencyGraph(linkable, parent);
+        if (validation.shouldCommit()) {
+            validation.componentCount = linkable.size();
+            validation.restored = reuse;
+            validation.commit();
+        }
+        if (generatedInjectors) linkable.values().forEach(ComponentProvider::compile);
+
+        ContextSnapshot context = new Linker(instrument(linkable, graph), asyncExecutor, parent, reusable, graph.affectedBy(changed), relink).link(graph);
+        if (eagerSingletons != null) context.instantiateSingletons(graph.waves(), eagerSingletons);
+        validated = reuse ? null : graph;
+        return publish(context);
+    }
+
+    public Context getContext(ComponentRef<?>... roots) {
+        Map<Component, ComponentProvider<?>> frozen = Collections.unmodifiableMap(new LinkedHashMap<>(linkable()));
+        DependencyGraph graph = new DependencyGraph(frozen, parent, componentsOf(roots));
+        if (generatedInjectors) graph.levels().keySet().forEach(component -> frozen.get(component).compile());
+
+        ContextSnapshot context = new Linker(instrument(frozen, graph), asyncExecutor, parent, reusable, graph.affectedBy(changed), relink).linkReachable(graph);
+        if (eagerSingletons != null) context.instantiateSingletons(graph.waves(), eagerSingletons);
+        validated = null;
+        return publish(context);
+    }
+
+    private Map<Component, ComponentProvider<?>> linkable() {
+        if (parent == null) return components;
+        Map<Component, ComponentProvider<?>> pulled = parent.inherited(components.keySet());
+        for (Component component : pulled.keySet()) if (!inherited.contains(component)) changed.add(component);
+        for (Component component : inherited) if (!pulled.containsKey(component)) changed.add(component);
+        inherited = Set.copyOf(pulled.keySet());
+        if (pulled.isEmpty()) return components;
+        Map<Component, ComponentProvider<?>> linkable = new LinkedHashMap<>(components);
+        linkable.putAll(pulled);
+        return linkable;
+    }
+
+    private Context publish(ContextSnapshot context) {
+        changed.clear();
+        reusable = context;
+        relink = false;
+        published.set(context);
+        return context;
+    }
+
+    public Set<Component> prune(ComponentRef<?>... roots) {
+        DependencyGraph graph = new DependencyGraph(components, parent, componentsOf(roots));
+        Set<Component> pruned = new LinkedHashSet<>(components.keySet());
+        pruned.removeAll(graph.levels().keySet());
+        components.keySet().removeAll(pruned);
+        bindings.keySet().removeAll(pruned);
+        changed.removeAll(pruned);
+        restored = graph;
+        validated = null;
+        return Collections.unmodifiableSet(pruned);
+    }
+
+    private Set<Component> componentsOf(ComponentRef<?>[] roots) {
+        Set<Component> required = new LinkedHashSet<>();
+        for (ComponentRef<?> root : roots) required.addAll(componentsOf(root));
+        return required;
+    }
 
+    private List<Component> componentsOf(ComponentRef<?> root) {
+        if (root.isContainer() && Multibinding.supports(root.getContainer()))
+            return components.keySet().stream()
+                    .filter(component -> Multibinding.matches(root.getContainer(), root.component(), component)).toList();
+        if (!components.containsKey(root.component()) && (parent == null || !parent.contains(root.component())))
+            throw new DependencyNotFoundException(root.component(), root.component());
+        return components.containsKey(root.component()) ? List.of(root.component()) : List.of();
+    }
+
+    public Context currentContext() {
         return new Context() {
-            @SuppressWarnings("unchecked")
             @Override
             public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
-                if (ref.isContainer()) {
-                    if (ref.getContainer() != Provider.class) return Optional.empty();
-                    return (Optional<ComponentType>) Optional.ofNullable(getProvider(ref))
-                            .map(provider -> (Provider<Object>) () -> provider.get(this));
-                }
-                return Optional.ofNullable(getProvider(ref))
-                        .map(provider -> (ComponentType) provider.get(this));
+                ContextSnapshot context = published.get();
+                if (context == null) throw new IllegalStateException("no context published, call getContext() first");
+                return context.get(ref);
             }
         };
     }
 
-    private <ComponentType> ComponentProvider<?> getProvider(ComponentRef<ComponentType> ref) {
-        return components.get(ref.component());
+    private Map<Component, ComponentProvider<?>> instrument(Map<Component, ComponentProvider<?>> components, DependencyGraph graph) {
+        if (metrics == null && profile == null) return components;
+        Map<Component, Integer> levels = graph.levels();
+        Map<Component, ComponentProvider<?>> instrumented = new LinkedHashMap<>();
+        Map<ComponentProvider<?>, ComponentProvider<?>> shared = new IdentityHashMap<>();
+        components.forEach((component, source) -> instrumented.put(component, shared.computeIfAbsent(source, provider -> {
+            boolean constructs = bindings.containsKey(component);
+            if (profile != null && constructs) provider = profile.instrument(component, provider);
+            if (metrics != null)
+                provider = metrics.instrument(component, provider, constructs, levels.getOrDefault(component, 0));
+            return provider;
+        })));
+        return instrumented;
     }
 
-    private void checkDependencies(Component component, Stack<Component> visiting) {
-        for (ComponentRef<?> dependency : components.get(component).getDependencies()) {
-            if (!components.containsKey(dependency.component()))
-                throw new DependencyNotFoundException(component, dependency.component());
-            if (!dependency.isContainer()) {
-                if (visiting.contains(dependency.component()))
-                    throw new CyclicDependenciesFoundException(visiting);
-                visiting.push(dependency.component());
-                checkDependencies(dependency.component(), visiting);
-                visiting.pop();
-            }
-        }
+    record Binding(Class<?> implementation, Class<? extends Annotation> scope) {
     }
 
 }
@@ -0,0 +1,267 @@
+package com.wangyousong.practice.di;
+
+import com.wangyousong.practice.di.ContextConfig.Binding;
+import com.wangyousong.practice.di.InjectionProvider.Injectable;
+import com.wangyousong.practice.di.InjectionProvider.Metadata;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+record ContextImage(List<Entry> entries, Map<Component, Integer> levels, boolean current) {
+    private static final int MAGIC = 0x44494358;
+    private static final short VERSION = 4;
+    private static final byte NONE = 0, NAMED = 1, MARKER = 2, CONTRIBUTION = 3;
+    private static final byte EXTERNAL = 0, FACTORY = 1, REFLECTIVE = 2, SHARED = 3;
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of("boolean", boolean.class, "byte", byte.class,
+            "char", char.class, "short", short.class, "int", int.class, "long", long.class, "float", float.class,
+            "double", double.class, "void", void.class);
+
+    record Entry(Component component, Binding binding, ComponentProvider<?> provider) {
+    }
+
+    static void write(Path file, DependencyGraph graph, Map<Component, Binding> bindings,
+                      Map<Component, ComponentProvider<?>> providers) throws IOException {
+        Map<Component, Integer> levels = graph.levels();
+        List<Component> order = levels.keySet().stream().sorted(Comparator.comparing(levels::get)).toList();
+        Map<Component, Integer> ids = new HashMap<>();
+        for (Component component : order) ids.put(component, ids.size());
+        Map<ComponentProvider<?>, Integer> shared = new IdentityHashMap<>();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(order.size());
+            for (Component component : order) {
+                writeString(out, component.type().getName());
+                writeQualifier(out, component.qualifiers());
+                out.writeInt(levels.get(component));
+            }
+            for (Component component : order) {
+                Binding binding = bindings.get(component);
+                if (binding == null) {
+                    out.writeByte(EXTERNAL);
+                    continue;
+                }
+                Integer first = shared.putIfAbsent(providers.get(component), ids.get(component));
+                if (first != null) {
+                    out.writeByte(SHARED);
+                    out.writeInt(first);
+                    continue;
+                }
+                boolean generated = FactoryProvider.of(binding.implementation()).isPresent();
+                out.writeByte(generated ? FACTORY : REFLECTIVE);
+                writeString(out, binding.implementation().getName());
+                writeString(out, binding.scope() == null ? "" : binding.scope().getName());
+                out.writeInt(fingerprint(binding.implementation()));
+                if (generated) continue;
+                ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+                writeMetadata(new DataOutputStream(metadata), InjectionProvider.metadataOf(binding.implementation()), ids);
+                out.writeInt(metadata.size());
+                metadata.writeTo(out);
+            }
+        }
+    }
+
+    static ContextImage read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+            throw new IOException("not a context image: " + file);
+
+        Component[] components = new Component[buffer.getInt()];
+        Map<Component, Integer> levels = new HashMap<>();
+        for (int id = 0; id < components.length; id++) {
+            components[id] = new Component(load(readString(buffer)), readQualifier(buffer));
+            levels.put(components[id], buffer.getInt());
+        }
+        List<Entry> entries = new ArrayList<>();
+        Entry[] byId = new Entry[components.length];
+        boolean current = true;
+        for (int id = 0; id < components.length; id++) {
+            Component component = components[id];
+            byte kind = buffer.get();
+            if (kind == EXTERNAL) continue;
+            if (kind == SHARED) {
+                Entry first = byId[buffer.getInt()];
+                entries.add(byId[id] = new Entry(component, first.binding(), first.provider()));
+                continue;
+            }
+            Class<?> implementation = load(readString(buffer));
+            String scope = readString(buffer);
+            Binding binding = new Binding(implementation, scope.isEmpty() ? null : load(scope).asSubclass(Annotation.class));
+            boolean unchanged = buffer.getInt() == fingerprint(implementation);
+            current &= unchanged;
+            ComponentProvider<?> provider;
+            if (kind == FACTORY) {
+                provider = FactoryProvider.of(implementation).orElseThrow(IllegalComponentException::new);
+            } else if (unchanged) {
+                buffer.getInt();
+                provider = readProvider(buffer, implementation, components);
+            } else {
+                buffer.position(buffer.getInt() + buffer.position());
+                provider = new InjectionProvider<>(implementation);
+            }
+            entries.add(byId[id] = new Entry(component, binding, provider));
+        }
+        return new ContextImage(entries, levels, current);
+    }
+
+    static int fingerprint(Class<?> component) {
+        int fingerprint = 1;
+        for (Class<?> current = component; current != null && current != Object.class; current = current.getSuperclass()) {
+            int members = current.getName().hashCode();
+            for (Constructor<?> constructor : current.getDeclaredConstructors())
+                if (constructor.isAnnotationPresent(Inject.class) || constructor.getParameterCount() == 0)
+                    members += injectionPoint(constructor);
+            for (Field field : current.getDeclaredFields())
+                if (field.isAnnotationPresent(Inject.class)) members += injectionPoint(field);
+            for (Method method : current.getDeclaredMethods())
+                members += method.isAnnotationPresent(Inject.class) ? injectionPoint(method) : method.toGenericString().hashCode();
+            fingerprint = 31 * fingerprint + members;
+        }
+        return fingerprint;
+    }
+
+    private static int injectionPoint(AccessibleObject member) {
+        String annotations = Arrays.toString(member.getAnnotations());
+        if (member instanceof Executable executable)
+            return Objects.hash(executable.toGenericString(), annotations, Arrays.deepToString(executable.getParameterAnnotations()));
+        return Objects.hash(((Field) member).toGenericString(), annotations);
+    }
+
+    private static void writeMetadata(DataOutputStream out, Metadata<?> metadata, Map<Component, Integer> ids) throws IOException {
+        writeParameters(out, metadata.constructor().element(), metadata.constructor().required(), ids);
+        out.writeInt(metadata.fields().size());
+        for (Injectable<Field> field : metadata.fields()) {
+            writeString(out, field.element().getDeclaringClass().getName());
+            writeString(out, field.element().getName());
+            writeRef(out, field.required()[0], ids);
+        }
+        out.writeInt(metadata.methods().size());
+        for (Injectable<Method> method : metadata.methods()) {
+            writeString(out, method.element().getDeclaringClass().getName());
+            writeString(out, method.element().getName());
+            writeParameters(out, method.element(), method.required(), ids);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ComponentProvider<?> readProvider(ByteBuffer buffer, Class<?> implementation, Component[] components) {
+        try {
+            Class<?>[] types = readTypes(buffer);
+            Injectable<Constructor<?>> constructor = Injectable.restored(implementation.getDeclaredConstructor(types), readRefs(buffer, types.length, components));
+            List<Injectable<Field>> fields = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                Field field = load(readString(buffer)).getDeclaredField(readString(buffer));
+                fields.add(Injectable.restored(field, readRefs(buffer, 1, components)));
+            }
+            List<Injectable<Method>> methods = new ArrayList<>();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                Class<?> declaringClass = load(readString(buffer));
+                String name = readString(buffer);
+                Class<?>[] parameters = readTypes(buffer);
+                methods.add(Injectable.restored(declaringClass.getDeclaredMethod(name, parameters), readRefs(buffer, parameters.length, components)));
+            }
+            return new InjectionProvider(implementation, new Metadata(constructor, List.copyOf(fields), List.copyOf(methods)));
+        } catch (NoSuchMethodException | NoSuchFieldException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static void writeParameters(DataOutputStream out, Executable executable, ComponentRef<?>[] required,
+                                        Map<Component, Integer> ids) throws IOException {
+        out.writeInt(required.length);
+        for (Class<?> type : executable.getParameterTypes()) writeString(out, type.getName());
+        for (ComponentRef<?> ref : required) writeRef(out, ref, ids);
+    }
+
+    private static Class<?>[] readTypes(ByteBuffer buffer) {
+        Class<?>[] types = new Class<?>[buffer.getInt()];
+        for (int i = 0; i < types.length; i++) types[i] = load(readString(buffer));
+        return types;
+    }
+
+    private static void writeRef(DataOutputStream out, ComponentRef<?> ref, Map<Component, Integer> ids) throws IOException {
+        writeString(out, ref.isContainer() ? ((Class<?>) ref.getContainer()).getName() : "");
+        Integer id = ids.get(ref.component());
+        out.writeInt(id == null ? -1 : id);
+        if (id != null) return;
+        writeString(out, ref.component().type().getName());
+        writeQualifier(out, ref.component().qualifiers());
+    }
+
+    private static ComponentRef<?>[] readRefs(ByteBuffer buffer, int count, Component[] components) {
+        ComponentRef<?>[] refs = new ComponentRef<?>[count];
+        for (int i = 0; i < count; i++) {
+            String container = readString(buffer);
+            int id = buffer.getInt();
+            Component component = id >= 0 ? components[id] : new Component(load(readString(buffer)), readQualifier(buffer));
+            refs[i] = ComponentRef.of(container.isEmpty() ? null : load(container), component);
+        }
+        return refs;
+    }
+
+    private static void writeQualifier(DataOutputStream out, Annotation qualifier) throws IOException {
+        if (qualifier == null) {
+            out.writeByte(NONE);
+        } else if (qualifier instanceof Multibinding.Contribution contribution) {
+            out.writeByte(CONTRIBUTION);
+            writeQualifier(out, contribution.qualifier());
+        } else if (qualifier instanceof Named named) {
+            out.writeByte(NAMED);
+            writeString(out, named.value());
+        } else if (qualifier.annotationType().getDeclaredMethods().length == 0) {
+            out.writeByte(MARKER);
+            writeString(out, qualifier.annotationType().getName());
+        } else {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static Annotation readQualifier(ByteBuffer buffer) {
+        return switch (buffer.get()) {
+            case NAMED -> Qualifiers.named(readString(buffer));
+            case MARKER -> Qualifiers.marker(load(readString(buffer)).asSubclass(Annotation.class));
+            case CONTRIBUTION -> new Multibinding.Contribution(readQualifier(buffer));
+            default -> null;
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static Class<?> load(String name) {
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) return primitive;
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        try {
+            return Class.forName(name, false, loader != null ? loader : ContextImage.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalComponentException();
+        }
+    }
+}
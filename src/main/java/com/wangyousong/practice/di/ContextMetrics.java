@@ -0,0 +1,79 @@
+package com.wangyousong.practice.di;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ContextMetrics implements ContextMetricsMXBean {
+    private final Map<Component, Recorder> recorders = new ConcurrentHashMap<>();
+
+    ContextMetrics() {
+    }
+
+    public Optional<ComponentMetrics> of(Component component) {
+        return Optional.ofNullable(recorders.get(component)).map(recorder -> recorder.snapshot(component));
+    }
+
+    @Override
+    public List<ComponentMetrics> getComponents() {
+        return recorders.entrySet().stream().map(entry -> entry.getValue().snapshot(entry.getKey())).toList();
+    }
+
+    @Override
+    public long getTotalResolutions() {
+        return recorders.values().stream().mapToLong(recorder -> recorder.resolutions.sum()).sum();
+    }
+
+    @Override
+    public long getTotalConstructions() {
+        return recorders.values().stream().mapToLong(recorder -> recorder.latency.count()).sum();
+    }
+
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("com.wangyousong.practice.di", "name", ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ComponentProvider<?> instrument(Component component, ComponentProvider<?> provider, boolean constructs, int depth) {
+        Recorder recorder = recorders.computeIfAbsent(component, c -> new Recorder());
+        recorder.depth = depth;
+        if (!constructs) return new MeteredProvider<>(provider, recorder, true, false);
+        if (!(provider instanceof ScopedProvider scoped)) return new MeteredProvider<>(provider, recorder, true, true);
+        recorder.scoped = true;
+        return new MeteredProvider<>(scoped.rescope(new MeteredProvider<>(scoped.unscoped(), recorder, false, true)), recorder, true, false);
+    }
+
+    static class Recorder {
+        private final LongAdder resolutions = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile int depth;
+        private volatile boolean scoped;
+
+        void resolved() {
+            resolutions.increment();
+        }
+
+        void constructed(long nanos) {
+            latency.record(nanos);
+        }
+
+        ComponentMetrics snapshot(Component component) {
+            long resolved = resolutions.sum(), constructed = latency.count();
+            return new ComponentMetrics(component.type().getName(),
+                    component.qualifiers() == null ? "" : component.qualifiers().toString(),
+                    resolved, constructed, scoped ? Math.max(resolved - constructed, 0) : 0, depth,
+                    latency.mean(), latency.percentile(50), latency.percentile(99), latency.max());
+        }
+    }
+}
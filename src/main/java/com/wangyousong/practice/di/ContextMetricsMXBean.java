@@ -0,0 +1,11 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+public interface ContextMetricsMXBean {
+    List<ComponentMetrics> getComponents();
+
+    long getTotalResolutions();
+
+    long getTotalConstructions();
+}
@@ -0,0 +1,197 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Provider;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+class ContextSnapshot implements Context {
+    private static final VarHandle PROVIDERS = MethodHandles.arrayElementVarHandle(ComponentProvider[].class);
+
+    private final Component[] components;
+    private final ComponentProvider<?>[] providers;
+    private final Optional<?>[] bound;
+    private final Executor executor;
+    private final ContextSnapshot parent;
+    private final Map<Multibinding.Key, Multibinding> multibindings = new ConcurrentHashMap<>();
+    private final int[] table;
+    private final int mask;
+    private ComponentProvider<?>[] sources;
+    private DependencyGraph graph;
+    private Linker linker;
+
+    ContextSnapshot(Component[] components, ComponentProvider<?>[] providers, Executor executor, ContextSnapshot parent) {
+        this.components = components;
+        this.providers = providers;
+        this.executor = executor;
+        this.parent = parent;
+        this.bound = new Optional<?>[components.length];
+        for (int id = 0; id < components.length; id++) {
+            int target = id;
+            bound[id] = Optional.of((Provider<Object>) () -> instance(target));
+        }
+        this.table = new int[Integer.highestOneBit(Math.max(components.length, 1)) << 2];
+        this.mask = table.length - 1;
+        for (int id = 0; id < components.length; id++) {
+            int slot = slotOf(components[id]);
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = id + 1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+        if (ref.isContainer() && Multibinding.supports(ref.getContainer())) {
+            return Optional.of((ComponentType) multibinding(ref.getContainer(), ref.component()).get());
+        }
+        int id = idOf(ref.component());
+        if (id < 0) return parent != null ? parent.get(ref) : Optional.empty();
+        if (ref.isContainer()) return (Optional<ComponentType>) container(ref.getContainer(), id);
+        return Optional.of((ComponentType) linkedProvider(id).get(this));
+    }
+
+    Optional<?> container(Type container, int id) {
+        if (container == Provider.class) return bound[id];
+        if (container == Lazy.class) return Optional.of(new MemoizedLazy<>(provider(id)));
+        if (container == CompletableFuture.class)
+            return Optional.of(CompletableFuture.supplyAsync(() -> instance(id), executor));
+        return Optional.empty();
+    }
+
+    boolean contains(Component component) {
+        return idOf(component) >= 0 || parent != null && parent.contains(component);
+    }
+
+    ComponentProvider<?> delegate(ComponentRef<?> ref) {
+        if (ref.isContainer() && Multibinding.supports(ref.getContainer())) {
+            Multibinding multibinding = multibinding(ref.getContainer(), ref.component());
+            return context -> multibinding.get();
+        }
+        int id = idOf(ref.component());
+        if (id < 0) return parent.delegate(ref);
+        if (!ref.isContainer()) {
+            ComponentProvider<?> provider = linkedProvider(id);
+            return context -> provider.get(this);
+        }
+        if (ref.getContainer() == Provider.class) {
+            Provider<?> provider = provider(id);
+            return context -> provider;
+        }
+        Type container = ref.getContainer();
+        return context -> container(container, id).get();
+    }
+
+    ComponentProvider<?> linked(Component component) {
+        int id = idOf(component);
+        return id < 0 ? null : (ComponentProvider<?>) PROVIDERS.getAcquire(providers, id);
+    }
+
+    ContextSnapshot parent() {
+        return parent;
+    }
+
+    Multibinding multibinding(Type container, Component component) {
+        return multibindings.computeIfAbsent(new Multibinding.Key(container, component), key -> {
+            Map<Component, ContextSnapshot> owners = new LinkedHashMap<>();
+            if (parent != null)
+                parent.multibinding(container, component).owners()
+                        .forEach((element, owner) -> owners.put(element, idOf(element) >= 0 ? this : owner));
+            for (Component candidate : components)
+                if (Multibinding.matches(container, component, candidate)) owners.putIfAbsent(candidate, this);
+            return new Multibinding(container, owners);
+        });
+    }
+
+    Object instance(int id) {
+        return linkedProvider(id).get(this);
+    }
+
+    boolean isShared(int id) {
+        return isSingleton(linkedProvider(id));
+    }
+
+    void attach(DependencyGraph graph, ComponentProvider<?>[] sources, Linker onDemand) {
+        this.graph = graph;
+        this.sources = sources;
+        this.linker = onDemand;
+    }
+
+    Map<Component, ComponentProvider<?>> inherited(Set<Component> overrides) {
+        Set<Component> changed = new HashSet<>(overrides);
+        Map<Component, ComponentProvider<?>> inherited = new LinkedHashMap<>();
+        for (int size = -1; size != inherited.size(); ) {
+            size = inherited.size();
+            for (ContextSnapshot ancestor = this; ancestor != null; ancestor = ancestor.parent)
+                for (Component component : ancestor.dependentsOf(changed)) {
+                    if (changed.contains(component) || ownerOf(component) != ancestor) continue;
+                    inherited.put(component, ancestor.sources[ancestor.idOf(component)]);
+                    changed.add(component);
+                }
+        }
+        return inherited;
+    }
+
+    private Set<Component> dependentsOf(Set<Component> changed) {
+        if (graph == null) return Set.of();
+        if (linker == null) return graph.affectedBy(changed);
+        synchronized (linker) {
+            return graph.affectedBy(changed);
+        }
+    }
+
+    private ContextSnapshot ownerOf(Component component) {
+        ContextSnapshot owner = this;
+        while (owner != null && owner.idOf(component) < 0) owner = owner.parent;
+        return owner;
+    }
+
+    private ComponentProvider<?> linkedProvider(int id) {
+        ComponentProvider<?> provider = (ComponentProvider<?>) PROVIDERS.getAcquire(providers, id);
+        if (provider != null) return provider;
+        if (linker == null) throw new IllegalStateException(components[id] + " is not linked");
+        synchronized (linker) {
+            graph.include(components[id]);
+            return linker.linked(id);
+        }
+    }
+
+    Provider<?> provider(int id) {
+        return (Provider<?>) bound[id].get();
+    }
+
+    void instantiateSingletons(List<List<Component>> waves, ForkJoinPool pool) {
+        for (List<Component> wave : waves)
+            wave.stream()
+                    .map(component -> linkedProvider(idOf(component)))
+                    .filter(ContextSnapshot::isSingleton)
+                    .<ForkJoinTask<?>>map(provider -> pool.submit(() -> provider.get(this)))
+                    .toList()
+                    .forEach(ForkJoinTask::join);
+    }
+
+    private static boolean isSingleton(ComponentProvider<?> provider) {
+        if (provider instanceof MeteredProvider<?> metered) return isSingleton(metered.delegate());
+        return provider instanceof SingletonProvider;
+    }
+
+    int idOf(Component component) {
+        for (int slot = slotOf(component); table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (components[id].equals(component)) return id;
+        }
+        return -1;
+    }
+
+    private int slotOf(Component component) {
+        int hash = component.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,18 @@
+package com.wangyousong.practice.di;
+
+import jdk.jfr.*;
+
+@Name("com.wangyousong.practice.di.ContextValidation")
+@Label("Context Validation")
+@Category("Dependency Injection")
+@Description("Dependency graph validation performed by ContextConfig.getContext()")
+@Enabled(false)
+@StackTrace(false)
+class ContextValidationEvent extends Event {
+    @Label("Component Count")
+    int componentCount;
+
+    @Label("Restored")
+    @Description("Whether the graph was taken from a restored context image")
+    boolean restored;
+}
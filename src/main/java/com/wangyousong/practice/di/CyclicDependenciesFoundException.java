@@ -1,18 +1,28 @@
 package com.wangyousong.practice.di;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CyclicDependenciesFoundException extends RuntimeException {
 
-    private final Set<Component> components = new HashSet<>();
+    private final List<Component> path;
 
-    public CyclicDependenciesFoundException(List<Component> visiting) {
-        components.addAll(visiting);
+    public CyclicDependenciesFoundException(List<Component> path) {
+        this.path = List.copyOf(path);
     }
 
     public Class<?>[] getComponents() {
-        return components.stream().map(Component::type).toArray(Class<?>[]::new);
+        return path.stream().map(Component::type).toArray(Class<?>[]::new);
+    }
+
+    public List<Component> getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMessage() {
+        return Stream.concat(path.stream(), Stream.of(path.get(0))).map(Component::toString)
+                .collect(Collectors.joining(" -> ", "cyclic dependencies: ", ""));
     }
 }
@@ -0,0 +1,44 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+class DeferredProvider<T> implements ComponentProvider<T> {
+    private final Class<T> implementation;
+    private volatile ComponentProvider<T> provider;
+
+    DeferredProvider(Class<T> implementation) {
+        this.implementation = implementation;
+    }
+
+    @Override
+    public T get(Context context) {
+        return provider().get(context);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider().getDependencies();
+    }
+
+    @Override
+    public void compile() {
+        provider().compile();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return provider().link(linker, component);
+    }
+
+    private ComponentProvider<T> provider() {
+        ComponentProvider<T> provider = this.provider;
+        if (provider == null) {
+            synchronized (this) {
+                provider = this.provider;
+                if (provider == null)
+                    this.provider = provider = FactoryProvider.of(implementation).orElseGet(() -> new InjectionProvider<>(implementation));
+            }
+        }
+        return provider;
+    }
+}
@@ -0,0 +1,202 @@
+package com.wangyousong.practice.di;
+
+import java.util.*;
+
+class DependencyGraph {
+    private final Map<Component, ComponentProvider<?>> components;
+    private final Map<Component, Integer> levels;
+    private final ContextSnapshot parent;
+    private final Map<Component, Set<Component>> dependents = new HashMap<>();
+    private final Map<Class<?>, Set<Component>> collectors = new HashMap<>();
+    private final LinkedHashSet<Component> visiting = new LinkedHashSet<>();
+    private final Set<Component> broken = new HashSet<>();
+    private final List<RuntimeException> failures = new ArrayList<>();
+    private Deque<Component> pending;
+    private boolean trusted;
+
+    DependencyGraph(Map<Component, ComponentProvider<?>> components) {
+        this(components, null);
+    }
+
+    DependencyGraph(Map<Component, ComponentProvider<?>> components, ContextSnapshot parent) {
+        this(components, new HashMap<>(), parent);
+        components.keySet().forEach(this::visit);
+        check();
+    }
+
+    DependencyGraph(Map<Component, ComponentProvider<?>> components, ContextSnapshot parent, Collection<Component> roots) {
+        this(components, new HashMap<>(), parent);
+        this.pending = new ArrayDeque<>();
+        roots.forEach(this::visit);
+        while (!pending.isEmpty()) visit(pending.pop());
+        pending = null;
+        check();
+    }
+
+    private DependencyGraph(Map<Component, ComponentProvider<?>> components, Map<Component, Integer> levels, ContextSnapshot parent) {
+        this.components = components;
+        this.levels = levels;
+        this.parent = parent;
+    }
+
+    static DependencyGraph trusted(Map<Component, ComponentProvider<?>> components, Map<Component, Integer> levels) {
+        DependencyGraph graph = new DependencyGraph(components, levels, null);
+        graph.trusted = true;
+        return graph;
+    }
+
+    DependencyGraph revalidate(Map<Component, ComponentProvider<?>> components, Set<Component> changed) {
+        DependencyGraph graph = new DependencyGraph(components, new HashMap<>(levels), parent);
+        dependents.forEach((component, set) -> graph.dependents.put(component, new HashSet<>(set)));
+        collectors.forEach((type, set) -> graph.collectors.put(type, new HashSet<>(set)));
+        Set<Component> affected = dependentsOf(changed);
+        graph.levels.keySet().removeAll(affected);
+        for (Component component : affected)
+            if (components.containsKey(component)) graph.visit(component);
+        graph.check();
+        return graph;
+    }
+
+    void include(Component component) {
+        try {
+            visit(component);
+            check();
+        } finally {
+            visiting.clear();
+            broken.clear();
+            failures.clear();
+        }
+    }
+
+    Set<Component> affectedBy(Set<Component> changed) {
+        return trusted ? components.keySet() : dependentsOf(changed);
+    }
+
+    boolean covers(Set<Component> components) {
+        return levels.keySet().equals(components);
+    }
+
+    Map<Component, Integer> levels() {
+        return Collections.unmodifiableMap(levels);
+    }
+
+    List<List<Component>> waves() {
+        List<List<Component>> waves = new ArrayList<>();
+        levels.forEach((component, level) -> {
+            while (waves.size() <= level) waves.add(new ArrayList<>());
+            waves.get(level).add(component);
+        });
+        return waves;
+    }
+
+    private Set<Component> dependentsOf(Set<Component> changed) {
+        Set<Component> affected = new HashSet<>();
+        Deque<Component> pending = new ArrayDeque<>(changed);
+        while (!pending.isEmpty()) {
+            Component component = pending.pop();
+            if (!affected.add(component)) continue;
+            pending.addAll(dependents.getOrDefault(component, Set.of()));
+            pending.addAll(collectors.getOrDefault(component.type(), Set.of()));
+        }
+        return affected;
+    }
+
+    private int visit(Component root) {
+        Integer known = levels.get(root);
+        if (known != null) return known;
+        if (broken.contains(root)) return -1;
+        Deque<Visit> stack = new ArrayDeque<>();
+        stack.push(enter(root));
+        int level = -1;
+        while (!stack.isEmpty()) {
+            Visit current = stack.peek();
+            Component next = current.next();
+            if (next != null) {
+                Integer depth = levels.get(next);
+                if (depth != null) current.depend(depth);
+                else if (broken.contains(next)) current.failed = true;
+                else if (visiting.contains(next)) {
+                    failures.add(new CyclicDependenciesFoundException(cycleFrom(next)));
+                    current.failed = true;
+                } else stack.push(enter(next));
+                continue;
+            }
+            stack.pop();
+            level = leave(current);
+            if (!stack.isEmpty()) stack.peek().depend(level);
+        }
+        return level;
+    }
+
+    private Visit enter(Component component) {
+        visiting.add(component);
+        return new Visit(component, components.get(component).getDependencies().iterator());
+    }
+
+    private int leave(Visit visit) {
+        visiting.remove(visit.component);
+        if (visit.failed) {
+            broken.add(visit.component);
+            return -1;
+        }
+        levels.put(visit.component, visit.level);
+        return visit.level;
+    }
+
+    private final class Visit {
+        private final Component component;
+        private final Iterator<ComponentRef<?>> dependencies;
+        private Iterator<Component> elements = Collections.emptyIterator();
+        private int level;
+        private boolean failed;
+
+        private Visit(Component component, Iterator<ComponentRef<?>> dependencies) {
+            this.component = component;
+            this.dependencies = dependencies;
+        }
+
+        private void depend(int depth) {
+            if (depth < 0) failed = true;
+            else level = Math.max(level, depth + 1);
+        }
+
+        private Component next() {
+            while (true) {
+                if (elements.hasNext()) return elements.next();
+                if (!dependencies.hasNext()) return null;
+                ComponentRef<?> dependency = dependencies.next();
+                if (dependency.isContainer() && Multibinding.supports(dependency.getContainer())) {
+                    collectors.computeIfAbsent(dependency.component().type(), type -> new HashSet<>()).add(component);
+                    elements = components.keySet().stream()
+                            .filter(element -> Multibinding.matches(dependency.getContainer(), dependency.component(), element))
+                            .toList().iterator();
+                    continue;
+                }
+                dependents.computeIfAbsent(dependency.component(), dependent -> new HashSet<>()).add(component);
+                if (!components.containsKey(dependency.component())) {
+                    if (parent != null && parent.contains(dependency.component())) continue;
+                    failures.add(new DependencyNotFoundException(new ArrayList<>(visiting), dependency.component()));
+                    failed = true;
+                    continue;
+                }
+                if (dependency.isContainer()) {
+                    if (pending != null) pending.push(dependency.component());
+                    continue;
+                }
+                return dependency.component();
+            }
+        }
+    }
+
+    private List<Component> cycleFrom(Component component) {
+        List<Component> path = new ArrayList<>(visiting);
+        return path.subList(path.indexOf(component), path.size());
+    }
+
+    private void check() {
+        if (failures.isEmpty()) return;
+        RuntimeException failure = failures.get(0);
+        for (int i = 1; i < failures.size(); i++) failure.addSuppressed(failures.get(i));
+        throw failure;
+    }
+}
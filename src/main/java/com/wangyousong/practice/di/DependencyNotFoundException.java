@@ -1,19 +1,36 @@
 package com.wangyousong.practice.di;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class DependencyNotFoundException extends RuntimeException {
-    private final Component component;
+    private final List<Component> path;
     private final Component dependency;
 
     public DependencyNotFoundException(Component component, Component dependency) {
-        this.component = component;
+        this(List.of(component), dependency);
+    }
+
+    public DependencyNotFoundException(List<Component> path, Component dependency) {
+        this.path = List.copyOf(path);
         this.dependency = dependency;
     }
 
     public Component getComponent() {
-        return component;
+        return path.get(path.size() - 1);
     }
 
     public Component getDependency() {
         return dependency;
     }
+
+    public List<Component> getPath() {
+        return path;
+    }
+
+    @Override
+    public String getMessage() {
+        return path.stream().map(Component::toString)
+                .collect(Collectors.joining(" -> ", "dependency not found: ", " -> " + dependency));
+    }
 }
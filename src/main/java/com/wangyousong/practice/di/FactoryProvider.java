@@ -0,0 +1,74 @@
+package com.wangyousong.practice.di;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Optional;
+
+class FactoryProvider<T> implements ComponentProvider<T> {
+    static final String SUFFIX = "$$Factory";
+
+    private static final ClassValue<Optional<ComponentFactory<?>>> FACTORIES = new ClassValue<>() {
+        @Override
+        protected Optional<ComponentFactory<?>> computeValue(Class<?> type) {
+            try {
+                Class<?> factory = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+                if (!ComponentFactory.class.isAssignableFrom(factory)) return Optional.empty();
+                return Optional.of((ComponentFactory<?>) factory.getDeclaredConstructor().newInstance());
+            } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException |
+                     InvocationTargetException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private final Class<T> component;
+    private final ComponentFactory<T> factory;
+    private final ComponentRef<?>[] required;
+    private final ComponentProvider<?>[] providers;
+    private final List<Annotation> qualifiers;
+
+    private FactoryProvider(Class<T> component, ComponentFactory<T> factory, ComponentProvider<?>[] providers, List<Annotation> qualifiers) {
+        this.component = component;
+        this.factory = factory;
+        this.required = factory.getDependencies().toArray(ComponentRef<?>[]::new);
+        this.providers = providers;
+        this.qualifiers = qualifiers;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Optional<ComponentProvider<T>> of(Class<T> component) {
+        return FACTORIES.get(component).map(factory -> new FactoryProvider<>(component, (ComponentFactory<T>) factory, null, List.of()));
+    }
+
+    @Override
+    public T get(Context context) {
+        ComponentConstructionEvent event = new ComponentConstructionEvent();
+        if (!event.isEnabled()) return construct(context);
+        event.enter(component, qualifiers);
+        try {
+            return construct(context);
+        } finally {
+            event.exit();
+        }
+    }
+
+    private T construct(Context context) {
+        Object[] dependencies = new Object[required.length];
+        for (int i = 0; i < required.length; i++)
+            dependencies[i] = providers == null ? context.get(required[i]).get() : providers[i].get(context);
+        return factory.create(dependencies);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return factory.getDependencies();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        ComponentProvider<?>[] linked = new ComponentProvider<?>[required.length];
+        for (int i = 0; i < required.length; i++) linked[i] = linker.get(required[i]);
+        return new FactoryProvider<>(this.component, factory, linked, linker.qualifiersOf(component));
+    }
+}
@@ -13,55 +13,179 @@ import static java.util.Arrays.stream;
 import static java.util.stream.Stream.concat;
 
 class InjectionProvider<T> implements ComponentProvider<T> {
-    private final Injectable<Constructor<T>> injectConstructor;
-    private final List<Injectable<Method>> injectMethods;
-    private final List<Injectable<Field>> injectFields;
+    private static final ClassValue<Metadata<?>> METADATA = new ClassValue<>() {
+        @Override
+        protected Metadata<?> computeValue(Class<?> type) {
+            return Metadata.of(type);
+        }
+    };
+    private static final ClassValue<Optional<Invoker>> INJECTORS = new ClassValue<>() {
+        @Override
+        protected Optional<Invoker> computeValue(Class<?> type) {
+            return METADATA.get(type).injector();
+        }
+    };
 
+    private final Class<T> component;
+    private Injectable<Constructor<T>> injectConstructor;
+    private List<Injectable<Method>> injectMethods;
+    private List<Injectable<Field>> injectFields;
+    private Invoker injector;
+    private List<Annotation> qualifiers = List.of();
 
     public InjectionProvider(Class<T> component) {
-        if (Modifier.isAbstract(component.getModifiers())) throw new IllegalComponentException();
+        this.component = component;
+        use(METADATA.get(component));
+    }
 
-        this.injectConstructor = getInjectConstructor(component);
-        this.injectMethods = getInjectMethods(component);
-        this.injectFields = getInjectFields(component);
+    InjectionProvider(Class<T> component, Metadata<T> metadata) {
+        this.component = component;
+        use(metadata);
+    }
 
-        if (injectFields.stream().map(Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers())))
-            throw new IllegalComponentException();
-        if (injectMethods.stream().map(Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0))
-            throw new IllegalComponentException();
+    @SuppressWarnings("unchecked")
+    static <T> Metadata<T> metadataOf(Class<T> component) {
+        return (Metadata<T>) METADATA.get(component);
+    }
+
+    private InjectionProvider(InjectionProvider<T> provider, Linker linker, Component component) {
+        this.component = provider.component;
+        this.qualifiers = linker.qualifiersOf(component);
+        this.injectConstructor = provider.injectConstructor.link(linker);
+        this.injectMethods = provider.injectMethods.stream().map(m -> m.link(linker)).toList();
+        this.injectFields = provider.injectFields.stream().map(f -> f.link(linker)).toList();
+        this.injector = provider.injector;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void use(Metadata<?> metadata) {
+        this.injectConstructor = (Injectable<Constructor<T>>) (Injectable<?>) metadata.constructor();
+        this.injectMethods = metadata.methods();
+        this.injectFields = metadata.fields();
     }
 
     @Override
     public T get(Context context) {
+        ComponentConstructionEvent event = new ComponentConstructionEvent();
+        if (!event.isEnabled()) return construct(context);
+        event.enter(component, qualifiers);
         try {
-            T instance = injectConstructor.element.newInstance(injectConstructor.toDependencies(context));
+            return construct(context);
+        } finally {
+            event.exit();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Context context) {
+        try {
+            if (injector != null) return (T) injector.invoke(null, toArguments(context));
+            T instance = (T) injectConstructor.invoker().invoke(null, injectConstructor.toDependencies(context));
             for (Injectable<Field> field : injectFields)
-                field.element().set(instance, field.toDependencies(context)[0]);
+                field.invoker().invoke(instance, field.toDependencies(context));
             for (Injectable<Method> method : injectMethods)
-                method.element().invoke(instance, method.toDependencies(context));
+                method.invoker().invoke(instance, method.toDependencies(context));
             return instance;
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException(e);
         }
     }
 
+    private Object[] toArguments(Context context) {
+        Object[] arguments = new Object[1 + injectFields.size() + injectMethods.size()];
+        int index = 0;
+        arguments[index++] = injectConstructor.toDependencies(context);
+        for (Injectable<Field> field : injectFields) arguments[index++] = field.toDependencies(context);
+        for (Injectable<Method> method : injectMethods) arguments[index++] = method.toDependencies(context);
+        return arguments;
+    }
+
+    @Override
+    public void compile() {
+        injector = INJECTORS.get(component).orElse(null);
+    }
+
+    boolean isCompiled() {
+        return injector != null;
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return new InjectionProvider<>(this, linker, component);
+    }
+
     @Override
     public List<ComponentRef<?>> getDependencies() {
         return concat(concat(Stream.of(injectConstructor), injectFields.stream()), injectMethods.stream())
                 .flatMap(i -> stream(i.required())).toList();
     }
 
-    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required) {
+    record Metadata<T>(Injectable<Constructor<T>> constructor, List<Injectable<Field>> fields, List<Injectable<Method>> methods) {
+        static <T> Metadata<T> of(Class<T> component) {
+            if (Modifier.isAbstract(component.getModifiers())) throw new IllegalComponentException();
+
+            Metadata<T> metadata = new Metadata<>(getInjectConstructor(component), getInjectFields(component), getInjectMethods(component));
+
+            if (metadata.fields().stream().map(Injectable::element).anyMatch(f -> Modifier.isFinal(f.getModifiers())))
+                throw new IllegalComponentException();
+            if (metadata.methods().stream().map(Injectable::element).anyMatch(m -> m.getTypeParameters().length != 0))
+                throw new IllegalComponentException();
+            return metadata;
+        }
+
+        Optional<Invoker> injector() {
+            try {
+                BiFunction<Object, Object[], Object> injector = InjectorGenerator.generate(constructor.element(),
+                        fields.stream().map(Injectable::element).toList(), methods.stream().map(Injectable::element).toList());
+                return Optional.of(injector::apply);
+            } catch (IllegalAccessException ignored) {
+                // not reachable through a private lookup, keep the reflective invokers
+                return Optional.empty();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Invoker {
+        Object invoke(Object target, Object[] arguments) throws Throwable;
+    }
+
+    record Injectable<Element extends AccessibleObject>(Element element, ComponentRef<?>[] required, Invoker invoker,
+                                                        ComponentProvider<?>[] providers) {
         private static <Element extends Executable> Injectable<Element> of(Element element) {
-            return new Injectable<>(element, stream(element.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new));
+            return new Injectable<>(element, stream(element.getParameters()).map(Injectable::toComponentRef).toArray(ComponentRef<?>[]::new),
+                    reflective(element), null);
         }
 
         static Injectable<Field> of(Field field) {
-            return new Injectable<>(field, new ComponentRef<?>[]{toComponentRef(field)});
+            return new Injectable<>(field, new ComponentRef<?>[]{toComponentRef(field)}, reflective(field), null);
+        }
+
+        static <Element extends AccessibleObject> Injectable<Element> restored(Element element, ComponentRef<?>[] required) {
+            return new Injectable<>(element, required, reflective(element), null);
+        }
+
+        Injectable<Element> link(Linker linker) {
+            return new Injectable<>(element, required, invoker, stream(required).map(linker::get).toArray(ComponentProvider<?>[]::new));
+        }
+
+        private static Invoker reflective(AccessibleObject element) {
+            if (element instanceof Constructor<?> constructor) return (target, arguments) -> constructor.newInstance(arguments);
+            if (element instanceof Method method) return method::invoke;
+            Field field = (Field) element;
+            return (target, arguments) -> {
+                field.set(target, arguments[0]);
+                return null;
+            };
         }
 
         Object[] toDependencies(Context context) {
-            return stream(required).map(context::get).map(Optional::get).toArray();
+            if (providers == null) return stream(required).map(context::get).map(Optional::get).toArray();
+            Object[] dependencies = new Object[providers.length];
+            for (int i = 0; i < providers.length; i++) dependencies[i] = providers[i].get(context);
+            return dependencies;
         }
 
         private static ComponentRef toComponentRef(Field field) {
@@ -93,12 +217,25 @@ class InjectionProvider<T> implements ComponentProvider<T> {
     }
 
     private static List<Injectable<Method>> getInjectMethods(Class<?> component) {
-        List<Method> injectMethods = traverse(component, (methods, current) -> injectable(current.getDeclaredMethods())
-                .filter(m -> isOverrideByInjectMethod(methods, m))
-                .filter(m -> isOverrideByNoInjectMethod(component, m))
-                .toList());
+        return injectMethods(component).stream().map(Injectable::of).toList();
+    }
+
+    static List<Method> injectMethods(Class<?> component) {
+        Set<Signature> overridden = new HashSet<>();
+        stream(component.getDeclaredMethods()).filter(m -> !m.isAnnotationPresent(Inject.class)).map(Signature::of).forEach(overridden::add);
+        List<Method> injectMethods = traverse(component, (methods, current) -> {
+            List<Method> found = new ArrayList<>();
+            List<Signature> signatures = new ArrayList<>();
+            injectable(current.getDeclaredMethods()).forEach(m -> {
+                Signature signature = Signature.of(m);
+                signatures.add(signature);
+                if (!overridden.contains(signature)) found.add(m);
+            });
+            overridden.addAll(signatures);
+            return found;
+        });
         Collections.reverse(injectMethods);
-        return injectMethods.stream().map(Injectable::of).toList();
+        return injectMethods;
     }
 
     private static <T> List<Injectable<Field>> getInjectFields(Class<T> component) {
@@ -128,17 +265,9 @@ class InjectionProvider<T> implements ComponentProvider<T> {
         return stream(annotatedElements).filter(f -> f.isAnnotationPresent(Inject.class));
     }
 
-    private static boolean isOverride(Method m, Method o) {
-        return o.getName().equals(m.getName()) && Arrays.equals(o.getParameterTypes(), m.getParameterTypes());
-    }
-
-    private static boolean isOverrideByInjectMethod(List<Method> injectMethods, Method m) {
-        return injectMethods.stream().noneMatch(o -> isOverride(m, o));
-    }
-
-    private static <T> boolean isOverrideByNoInjectMethod(Class<T> component, Method m) {
-        return stream(component.getDeclaredMethods())
-                .filter(m1 -> !m1.isAnnotationPresent(Inject.class))
-                .noneMatch(o -> isOverride(m, o));
+    private record Signature(String name, List<Class<?>> parameterTypes) {
+        static Signature of(Method method) {
+            return new Signature(method.getName(), List.of(method.getParameterTypes()));
+        }
     }
 }
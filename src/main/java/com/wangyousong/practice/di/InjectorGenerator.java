@@ -0,0 +1,318 @@
+package com.wangyousong.practice.di;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static java.lang.invoke.MethodHandles.Lookup.ClassOption.NESTMATE;
+import static java.lang.invoke.MethodType.methodType;
+
+// Spins one hidden nestmate class per component whose apply(null, arguments) calls the
+// constructor, assigns the fields and invokes the methods directly, where arguments[i]
+// holds the dependencies of the i-th injection point in that order.
+final class InjectorGenerator {
+    private static final int ACC_PUBLIC = 0x0001, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020, ACC_SYNTHETIC = 0x1000;
+    private static final int ALOAD_0 = 0x2a, ALOAD_2 = 0x2c, ALOAD_3 = 0x2d, ASTORE_3 = 0x4e, ICONST_0 = 0x03,
+            BIPUSH = 0x10, SIPUSH = 0x11, AALOAD = 0x32, POP = 0x57, POP2 = 0x58, DUP = 0x59, ARETURN = 0xb0,
+            RETURN = 0xb1, PUTFIELD = 0xb5, PUTSTATIC = 0xb3, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7,
+            INVOKESTATIC = 0xb8, NEW = 0xbb, CHECKCAST = 0xc0;
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(boolean.class, Boolean.class, byte.class, Byte.class,
+            char.class, Character.class, short.class, Short.class, int.class, Integer.class, long.class, Long.class,
+            float.class, Float.class, double.class, Double.class);
+
+    private final ConstantPool pool = new ConstantPool();
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final Class<?> owner;
+    private int stack;
+    private int maxStack;
+    private int injectionPoint;
+
+    private InjectorGenerator(Class<?> owner) {
+        this.owner = owner;
+    }
+
+    @SuppressWarnings("unchecked")
+    static BiFunction<Object, Object[], Object> generate(Constructor<?> constructor, List<Field> fields, List<Method> methods)
+            throws IllegalAccessException {
+        Class<?> owner = constructor.getDeclaringClass();
+        List<Member> members = new ArrayList<>();
+        members.add(constructor);
+        members.addAll(fields);
+        members.addAll(methods);
+        for (Member member : members) {
+            if (!isAccessible(member, owner)) throw new IllegalAccessException(member + " is not accessible from " + owner);
+            for (Class<?> type : typesOf(member))
+                if (!isAccessible(type, owner)) throw new IllegalAccessException(type + " is not accessible from " + owner);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        byte[] bytes = new InjectorGenerator(owner).define(constructor, fields, methods);
+        try {
+            Class<?> injector = lookup.defineHiddenClass(bytes, true, NESTMATE).lookupClass();
+            return (BiFunction<Object, Object[], Object>) lookup.findConstructor(injector, methodType(void.class)).invoke();
+        } catch (IllegalAccessException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?>[] typesOf(Member member) {
+        if (member instanceof Field field) return new Class<?>[]{field.getType()};
+        return ((Executable) member).getParameterTypes();
+    }
+
+    private static boolean isAccessible(Member member, Class<?> owner) {
+        Class<?> declaring = member.getDeclaringClass();
+        if (declaring == owner) return true;
+        if (!isAccessible(declaring, owner)) return false;
+        int modifiers = member.getModifiers();
+        if (Modifier.isPrivate(modifiers)) return declaring.getNestHost() == owner.getNestHost();
+        return Modifier.isPublic(modifiers) || isSamePackage(declaring, owner);
+    }
+
+    private static boolean isSamePackage(Class<?> type, Class<?> owner) {
+        return type.getPackageName().equals(owner.getPackageName()) && type.getClassLoader() == owner.getClassLoader();
+    }
+
+    private static boolean isAccessible(Class<?> type, Class<?> owner) {
+        while (type.isArray()) type = type.getComponentType();
+        if (type.isPrimitive() || isSamePackage(type, owner)) return true;
+        for (Class<?> current = type; current != null; current = current.getDeclaringClass())
+            if (!Modifier.isPublic(current.getModifiers())) return false;
+        return true;
+    }
+
+    private byte[] define(Constructor<?> constructor, List<Field> fields, List<Method> methods) {
+        constructor(constructor);
+        for (Field field : fields) field(field);
+        for (Method method : methods) method(method);
+        emit(ALOAD_3, 1);
+        emit(ARETURN, -1);
+
+        int thisClass = pool.type(owner.getName().replace('.', '/') + "$$Injector");
+        int superClass = pool.type("java/lang/Object");
+        int function = pool.type("java/util/function/BiFunction");
+        int init = pool.utf8("<init>"), initDescriptor = pool.utf8("()V");
+        int apply = pool.utf8("apply"), applyDescriptor = pool.utf8("(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+        int codeAttribute = pool.utf8("Code");
+        int objectInit = pool.method("java/lang/Object", "<init>", "()V");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(61);
+            pool.write(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(function);
+            out.writeShort(0);
+            out.writeShort(2);
+            writeMethod(out, init, initDescriptor, codeAttribute, 1, 1,
+                    new byte[]{ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN});
+            writeMethod(out, apply, applyDescriptor, codeAttribute, maxStack, 4, code.toByteArray());
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void constructor(Constructor<?> constructor) {
+        String type = internalName(owner);
+        emit(NEW, pool.type(type), 1);
+        emit(DUP, 1);
+        int slots = loadArguments(constructor.getParameterTypes());
+        emit(INVOKESPECIAL, pool.method(type, "<init>", descriptor(constructor.getParameterTypes(), void.class)), -slots - 1);
+        emit(ASTORE_3, -1);
+    }
+
+    private void method(Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic) emit(ALOAD_3, 1);
+        int slots = loadArguments(method.getParameterTypes());
+        int returned = slots(method.getReturnType());
+        emit(isStatic ? INVOKESTATIC : INVOKEVIRTUAL, pool.method(internalName(method.getDeclaringClass()), method.getName(),
+                descriptor(method.getParameterTypes(), method.getReturnType())), returned - slots - (isStatic ? 0 : 1));
+        if (returned != 0) emit(returned == 2 ? POP2 : POP, -returned);
+    }
+
+    private void field(Field field) {
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        if (!isStatic) emit(ALOAD_3, 1);
+        int slots = loadArguments(new Class<?>[]{field.getType()});
+        emit(isStatic ? PUTSTATIC : PUTFIELD, pool.field(internalName(field.getDeclaringClass()), field.getName(),
+                descriptor(field.getType())), -slots - (isStatic ? 0 : 1));
+    }
+
+    private int loadArguments(Class<?>[] types) {
+        int slots = 0;
+        for (int i = 0; i < types.length; i++) {
+            emit(ALOAD_2, 1);
+            emit(CHECKCAST, pool.type("[Ljava/lang/Object;"), 0);
+            push(injectionPoint);
+            emit(AALOAD, -1);
+            emit(CHECKCAST, pool.type("[Ljava/lang/Object;"), 0);
+            push(i);
+            emit(AALOAD, -1);
+            Class<?> type = types[i];
+            if (type.isPrimitive()) {
+                String wrapper = internalName(WRAPPERS.get(type));
+                emit(CHECKCAST, pool.type(wrapper), 0);
+                emit(INVOKEVIRTUAL, pool.method(wrapper, type.getName() + "Value", "()" + descriptor(type)), slots(type) - 1);
+            } else if (type != Object.class) {
+                emit(CHECKCAST, pool.type(type.isArray() ? descriptor(type) : internalName(type)), 0);
+            }
+            slots += slots(type);
+        }
+        injectionPoint++;
+        return slots;
+    }
+
+    private void push(int value) {
+        if (value <= 5) emit(ICONST_0 + value, 1);
+        else if (value <= Byte.MAX_VALUE) emit(BIPUSH, (byte) value, 1);
+        else emit(SIPUSH, (short) value, 1);
+    }
+
+    private void emit(int opcode, int delta) {
+        code.write(opcode);
+        track(delta);
+    }
+
+    private void emit(int opcode, byte operand, int delta) {
+        code.write(opcode);
+        code.write(operand);
+        track(delta);
+    }
+
+    private void emit(int opcode, short operand, int delta) {
+        code.write(opcode);
+        code.write(operand >> 8);
+        code.write(operand);
+        track(delta);
+    }
+
+    private void emit(int opcode, int index, int delta) {
+        emit(opcode, (short) index, delta);
+    }
+
+    private void track(int delta) {
+        stack += delta;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private static int slots(Class<?> type) {
+        return type == void.class ? 0 : type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?>[] parameters, Class<?> returnType) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> parameter : parameters) descriptor.append(descriptor(parameter));
+        return descriptor.append(')').append(descriptor(returnType)).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        return type.descriptorString();
+    }
+
+    private static class ConstantPool {
+        private static final int UTF8 = 1, CLASS = 7, FIELDREF = 9, METHODREF = 10, NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> entries = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(UTF8);
+                out.writeUTF(value);
+            });
+        }
+
+        int type(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(CLASS);
+                out.writeShort(name);
+            });
+        }
+
+        int method(String owner, String name, String descriptor) {
+            return member(METHODREF, owner, name, descriptor);
+        }
+
+        int field(String owner, String name, String descriptor) {
+            return member(FIELDREF, owner, name, descriptor);
+        }
+
+        private int member(int tag, String owner, String name, String descriptor) {
+            int type = type(owner);
+            int nameIndex = utf8(name), descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + ":" + descriptor, () -> {
+                out.writeByte(NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry(tag + owner + "." + name + ":" + descriptor, () -> {
+                out.writeByte(tag);
+                out.writeShort(type);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            target.writeShort(count);
+            target.write(bytes.toByteArray());
+        }
+
+        private int entry(String key, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null) return index;
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+
+        @FunctionalInterface
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+}
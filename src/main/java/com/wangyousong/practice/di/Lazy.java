@@ -0,0 +1,5 @@
+package com.wangyousong.practice.di;
+
+public interface Lazy<T> {
+    T get();
+}
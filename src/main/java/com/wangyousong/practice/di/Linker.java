@@ -0,0 +1,138 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Provider;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+class Linker {
+    private static final VarHandle LINKED = MethodHandles.arrayElementVarHandle(ComponentProvider[].class);
+
+    private final Map<Component, Integer> ids = new HashMap<>();
+    private final Map<ComponentProvider<?>, ComponentProvider<?>> shared = new IdentityHashMap<>();
+    private final Component[] keys;
+    private final ComponentProvider<?>[] sources;
+    private final ComponentProvider<?>[] linked;
+    private final ContextSnapshot snapshot;
+    private ContextSnapshot previous;
+    private final Set<Component> affected;
+    private final boolean relink;
+    private Map<ComponentProvider<?>, List<Annotation>> qualifiers;
+
+    Linker(Map<Component, ComponentProvider<?>> components) {
+        this(components, ForkJoinPool.commonPool(), null, null, Set.of(), false);
+    }
+
+    Linker(Map<Component, ComponentProvider<?>> components, Executor executor, ContextSnapshot parent,
+           ContextSnapshot previous, Set<Component> affected, boolean relink) {
+        this.previous = previous;
+        this.affected = affected;
+        this.relink = relink;
+        this.keys = components.keySet().toArray(Component[]::new);
+        this.sources = new ComponentProvider<?>[keys.length];
+        this.linked = new ComponentProvider<?>[keys.length];
+        for (int id = 0; id < keys.length; id++) {
+            ids.put(keys[id], id);
+            sources[id] = components.get(keys[id]);
+        }
+        this.snapshot = new ContextSnapshot(keys, linked, executor, parent);
+    }
+
+    ContextSnapshot link() {
+        for (int id = 0; id < keys.length; id++) linked(id);
+        return snapshot;
+    }
+
+    ContextSnapshot link(DependencyGraph graph) {
+        linkInOrder(graph);
+        link();
+        snapshot.attach(graph, sources, null);
+        return snapshot;
+    }
+
+    ContextSnapshot linkReachable(DependencyGraph graph) {
+        linkInOrder(graph);
+        previous = null;
+        snapshot.attach(graph, sources, this);
+        return snapshot;
+    }
+
+    // dependencies first, so linking never recurses down a long chain
+    private void linkInOrder(DependencyGraph graph) {
+        for (List<Component> wave : graph.waves())
+            for (Component component : wave) {
+                Integer id = ids.get(component);
+                if (id != null) linked(id);
+            }
+    }
+
+    ComponentProvider<?> get(ComponentRef<?> ref) {
+        if (ref.isContainer() && Multibinding.supports(ref.getContainer())) {
+            Multibinding multibinding = snapshot.multibinding(ref.getContainer(), ref.component());
+            return context -> multibinding.get();
+        }
+        Integer known = ids.get(ref.component());
+        if (known == null) {
+            if (snapshot.parent() == null) throw new DependencyNotFoundException(ref.component(), ref.component());
+            return snapshot.parent().delegate(ref);
+        }
+        int id = known;
+        if (!ref.isContainer()) return linked(id);
+        if (ref.getContainer() != Provider.class) {
+            Type container = ref.getContainer();
+            return context -> snapshot.container(container, id).get();
+        }
+        Provider<?> provider = snapshot.provider(id);
+        return context -> provider;
+    }
+
+    // a source bound under several qualifiers is linked once, so its construction serves all of them
+    List<Annotation> qualifiersOf(Component component) {
+        Integer id = ids.get(component);
+        if (id == null) return component.qualifiers() == null ? List.of() : List.of(component.qualifiers());
+        if (qualifiers == null) {
+            qualifiers = new IdentityHashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                List<Annotation> bound = qualifiers.computeIfAbsent(sources[i], source -> new ArrayList<>());
+                if (keys[i].qualifiers() != null) bound.add(keys[i].qualifiers());
+            }
+        }
+        return qualifiers.get(sources[id]);
+    }
+
+    ComponentProvider<?> linked(int id) {
+        if (linked[id] != null) return linked[id];
+        ComponentProvider<?> source = sources[id];
+        ComponentProvider<?> provider = shared.get(source);
+        ComponentProvider<?> earlier = provider == null && previous != null && !affected.contains(keys[id]) ? previous.linked(keys[id]) : null;
+        if (earlier != null && !relink) provider = earlier;
+        if (provider == null) {
+            provider = source.link(this, keys[id]);
+            if (earlier != null) retain(provider, earlier);
+        }
+        shared.put(source, provider);
+        LINKED.setRelease(linked, id, provider);
+        return provider;
+    }
+
+    // relinked providers keep the instances already held by the scope they replace
+    private static void retain(ComponentProvider<?> provider, ComponentProvider<?> earlier) {
+        ScopedProvider<?> scoped = scoped(provider), previous = scoped(earlier);
+        if (scoped != null && previous != null) scoped.retain(previous);
+    }
+
+    private static ScopedProvider<?> scoped(ComponentProvider<?> provider) {
+        if (provider instanceof MeteredProvider<?> metered) return scoped(metered.delegate());
+        return provider instanceof ScopedProvider<?> scoped ? scoped : null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.wangyousong.practice.di;
+
+public final class LocalScope {
+    public static final LocalScope REQUEST = new LocalScope("request", false);
+    public static final LocalScope THREAD = new LocalScope("thread", true);
+
+    private final ThreadLocal<ScopedInstances> current = new ThreadLocal<>();
+    private final String name;
+    private final boolean implicit;
+
+    private LocalScope(String name, boolean implicit) {
+        this.name = name;
+        this.implicit = implicit;
+    }
+
+    public ScopedInstances enter() {
+        ScopedInstances instances = new ScopedInstances(this, current.get());
+        current.set(instances);
+        return instances;
+    }
+
+    public void exit() {
+        ScopedInstances instances = current.get();
+        if (instances != null) instances.close();
+    }
+
+    String name() {
+        return name;
+    }
+
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    ScopedInstances current() {
+        ScopedInstances instances = current.get();
+        if (instances != null) return instances;
+        if (!implicit) throw new OutOfScopeException("no " + name + " scope entered on " + Thread.currentThread());
+        return enter();
+    }
+
+    void restore(ScopedInstances instances, ScopedInstances previous) {
+        if (current.get() != instances) return;
+        if (previous == null) current.remove();
+        else current.set(previous);
+    }
+}
@@ -0,0 +1,49 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+class LocalScopeProvider<T> implements ScopedProvider<T> {
+    private final ComponentProvider<T> provider;
+    private final LocalScope scope;
+    private Object key = this;
+
+    LocalScopeProvider(ComponentProvider<T> provider, LocalScope scope) {
+        this.provider = provider;
+        this.scope = scope;
+    }
+
+    @Override
+    public T get(Context context) {
+        return scope.current().get(key, provider, context);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public void compile() {
+        provider.compile();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return new LocalScopeProvider<>(provider.link(linker, component), scope);
+    }
+
+    @Override
+    public ComponentProvider<T> unscoped() {
+        return provider;
+    }
+
+    @Override
+    public ComponentProvider<T> rescope(ComponentProvider<T> provider) {
+        return new LocalScopeProvider<>(provider, scope);
+    }
+
+    @Override
+    public void retain(ScopedProvider<?> previous) {
+        if (previous instanceof LocalScopeProvider<?> local && local.scope == scope) key = local.key;
+    }
+}
@@ -0,0 +1,24 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Provider;
+
+class MemoizedLazy<T> implements Lazy<T> {
+    private final Provider<T> provider;
+    private volatile T value;
+
+    MemoizedLazy(Provider<T> provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) value = result = provider.get();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+class MeteredProvider<T> implements ComponentProvider<T> {
+    private final ComponentProvider<T> provider;
+    private final ContextMetrics.Recorder recorder;
+    private final boolean resolution;
+    private final boolean construction;
+
+    MeteredProvider(ComponentProvider<T> provider, ContextMetrics.Recorder recorder, boolean resolution, boolean construction) {
+        this.provider = provider;
+        this.recorder = recorder;
+        this.resolution = resolution;
+        this.construction = construction;
+    }
+
+    @Override
+    public T get(Context context) {
+        if (resolution) recorder.resolved();
+        if (!construction) return provider.get(context);
+        long start = System.nanoTime();
+        T instance = provider.get(context);
+        recorder.constructed(System.nanoTime() - start);
+        return instance;
+    }
+
+    ComponentProvider<T> delegate() {
+        return provider;
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public void compile() {
+        provider.compile();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return new MeteredProvider<>(provider.link(linker, component), recorder, resolution, construction);
+    }
+}
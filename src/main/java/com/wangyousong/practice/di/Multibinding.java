@@ -0,0 +1,102 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Named;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.reflect.Type;
+import java.util.*;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+class Multibinding {
+    private final Type container;
+    private final Component[] elements;
+    private final ContextSnapshot[] owners;
+    private final int[] ids;
+    private volatile Object aggregate;
+
+    Multibinding(Type container, Map<Component, ContextSnapshot> owners) {
+        this.container = container;
+        this.elements = owners.keySet().toArray(Component[]::new);
+        this.owners = owners.values().toArray(ContextSnapshot[]::new);
+        this.ids = new int[elements.length];
+        for (int i = 0; i < elements.length; i++) ids[i] = this.owners[i].idOf(elements[i]);
+    }
+
+    static boolean supports(Type container) {
+        return container == List.class || container == Set.class || container == Map.class;
+    }
+
+    static boolean matches(Type container, Component component, Component candidate) {
+        if (candidate.type() != component.type()) return false;
+        Annotation qualifier = qualifierOf(candidate);
+        if (component.qualifiers() != null) return component.qualifiers().equals(qualifier);
+        return container != Map.class || qualifier instanceof Named;
+    }
+
+    private static Annotation qualifierOf(Component element) {
+        return element.qualifiers() instanceof Contribution contribution ? contribution.qualifier() : element.qualifiers();
+    }
+
+    Map<Component, ContextSnapshot> owners() {
+        Map<Component, ContextSnapshot> owners = new LinkedHashMap<>();
+        for (int i = 0; i < elements.length; i++) owners.put(elements[i], this.owners[i]);
+        return owners;
+    }
+
+    Object get() {
+        Object result = aggregate;
+        if (result != null) return result;
+        result = build();
+        if (isShared()) aggregate = result;
+        return result;
+    }
+
+    private boolean isShared() {
+        for (int i = 0; i < ids.length; i++) if (!owners[i].isShared(ids[i])) return false;
+        return true;
+    }
+
+    private Object build() {
+        Object[] instances = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) instances[i] = owners[i].instance(ids[i]);
+        if (container == List.class) return List.of(instances);
+        if (container == Set.class) return Set.copyOf(Arrays.asList(instances));
+        Map<String, Object> named = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) named.put(((Named) qualifierOf(elements[i])).value(), instances[i]);
+        return Map.copyOf(named);
+    }
+
+    record Key(Type container, Component component) {
+    }
+
+    @Qualifier
+    @Retention(RUNTIME)
+    @interface Contributed {
+    }
+
+    // qualifies one element bound with bindInto, equal only to itself so a type takes any number of them
+    static final class Contribution implements Contributed {
+        private final Annotation qualifier;
+
+        Contribution(Annotation qualifier) {
+            this.qualifier = qualifier;
+        }
+
+        Annotation qualifier() {
+            return qualifier;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Contributed.class;
+        }
+
+        @Override
+        public String toString() {
+            return "@" + Contributed.class.getName() + "(" + (qualifier == null ? "" : qualifier) + ")";
+        }
+    }
+}
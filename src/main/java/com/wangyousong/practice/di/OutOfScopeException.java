@@ -0,0 +1,7 @@
+package com.wangyousong.practice.di;
+
+public class OutOfScopeException extends RuntimeException {
+    public OutOfScopeException(String message) {
+        super(message);
+    }
+}
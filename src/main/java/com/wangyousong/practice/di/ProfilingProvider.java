@@ -0,0 +1,40 @@
+package com.wangyousong.practice.di;
+
+import java.util.List;
+
+class ProfilingProvider<T> implements ComponentProvider<T> {
+    private final ComponentProvider<T> provider;
+    private final StartupProfile profile;
+    private final Component component;
+
+    ProfilingProvider(ComponentProvider<T> provider, StartupProfile profile, Component component) {
+        this.provider = provider;
+        this.profile = profile;
+        this.component = component;
+    }
+
+    @Override
+    public T get(Context context) {
+        StartupProfile.Frame frame = profile.enter(component);
+        try {
+            return provider.get(context);
+        } finally {
+            profile.exit(frame);
+        }
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return provider.getDependencies();
+    }
+
+    @Override
+    public void compile() {
+        provider.compile();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return new ProfilingProvider<>(provider.link(linker, component), profile, component);
+    }
+}
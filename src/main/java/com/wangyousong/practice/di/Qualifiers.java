@@ -0,0 +1,87 @@
+package com.wangyousong.practice.di;
+
+import jakarta.inject.Named;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Qualifiers {
+    // keyed by the very string the qualifier holds, so an entry lives only as long as its qualifier
+    private static final Map<String, WeakReference<Named>> NAMED = new WeakHashMap<>();
+    // scoped to the annotation type, so interned qualifiers never outlive their class loader
+    private static final ClassValue<Map<Annotation, Annotation>> INTERNED = new ClassValue<>() {
+        @Override
+        protected Map<Annotation, Annotation> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final ClassValue<Optional<Annotation>> MARKERS = new ClassValue<>() {
+        @Override
+        protected Optional<Annotation> computeValue(Class<?> type) {
+            if (type.getDeclaredMethods().length != 0) return Optional.empty();
+            return Optional.of(marker(type.asSubclass(Annotation.class)));
+        }
+    };
+
+    private Qualifiers() {
+    }
+
+    public static Named named(String value) {
+        synchronized (NAMED) {
+            WeakReference<Named> reference = NAMED.get(value);
+            Named named = reference == null ? null : reference.get();
+            if (named == null) {
+                named = new NamedQualifier(value);
+                NAMED.put(value, new WeakReference<>(named));
+            }
+            return named;
+        }
+    }
+
+    static Annotation canonical(Annotation qualifier) {
+        if (qualifier == null) return null;
+        if (qualifier instanceof Named named) return named(named.value());
+        if (qualifier instanceof Multibinding.Contribution) return qualifier;
+        Optional<Annotation> marker = MARKERS.get(qualifier.annotationType());
+        if (marker.isPresent()) return marker.get();
+        return INTERNED.get(qualifier.annotationType()).computeIfAbsent(qualifier, q -> q);
+    }
+
+    static Annotation marker(Class<? extends Annotation> type) {
+        return (Annotation) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, arguments) ->
+                switch (method.getName()) {
+                    case "annotationType" -> type;
+                    case "equals" -> type.isInstance(arguments[0]);
+                    case "hashCode" -> 0;
+                    case "toString" -> "@" + type.getName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private record NamedQualifier(String value) implements Named {
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Named.class;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Named named && value.equals(named.value());
+        }
+
+        @Override
+        public int hashCode() {
+            return "value".hashCode() * 127 ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "@jakarta.inject.Named(\"" + value + "\")";
+        }
+    }
+}
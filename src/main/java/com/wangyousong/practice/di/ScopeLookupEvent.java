@@ -0,0 +1,29 @@
+package com.wangyousong.practice.di;
+
+import jdk.jfr.*;
+
+@Name("com.wangyousong.practice.di.ScopeLookup")
+@Label("Scope Lookup")
+@Category("Dependency Injection")
+@Description("Lookup of a scoped instance, hit when it already existed in the scope")
+@Enabled(false)
+@StackTrace(false)
+class ScopeLookupEvent extends Event {
+    @Label("Scope")
+    String scope;
+
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Hit")
+    boolean hit;
+
+    static void emit(String scope, Object instance, boolean hit) {
+        ScopeLookupEvent event = new ScopeLookupEvent();
+        if (!event.isEnabled()) return;
+        event.scope = scope;
+        event.componentType = instance.getClass();
+        event.hit = hit;
+        event.commit();
+    }
+}
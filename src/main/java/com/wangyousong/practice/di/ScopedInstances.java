@@ -0,0 +1,50 @@
+package com.wangyousong.practice.di;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ScopedInstances implements AutoCloseable {
+    private final LocalScope scope;
+    private final ScopedInstances previous;
+    private final Map<Object, Object> instances = new IdentityHashMap<>();
+    // dependencies finish construction first, so closing backwards closes dependents before what they use
+    private final List<Object> created = new ArrayList<>();
+
+    ScopedInstances(LocalScope scope, ScopedInstances previous) {
+        this.scope = scope;
+        this.previous = previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, ComponentProvider<T> provider, Context context) {
+        T instance = (T) instances.get(key);
+        boolean hit = instance != null;
+        if (!hit) {
+            instance = provider.get(context);
+            instances.put(key, instance);
+            created.add(instance);
+        }
+        ScopeLookupEvent.emit(scope.name(), instance, hit);
+        return instance;
+    }
+
+    @Override
+    public void close() {
+        scope.restore(this, previous);
+        RuntimeException failure = null;
+        for (int i = created.size() - 1; i >= 0; i--) {
+            if (!(created.get(i) instanceof AutoCloseable closeable)) continue;
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                if (failure == null) failure = new RuntimeException(e);
+                else failure.addSuppressed(e);
+            }
+        }
+        instances.clear();
+        created.clear();
+        if (failure != null) throw failure;
+    }
+}
@@ -0,0 +1,9 @@
+package com.wangyousong.practice.di;
+
+interface ScopedProvider<T> extends ComponentProvider<T> {
+    ComponentProvider<T> unscoped();
+
+    ComponentProvider<T> rescope(ComponentProvider<T> provider);
+
+    void retain(ScopedProvider<?> previous);
+}
@@ -2,9 +2,9 @@ package com.wangyousong.practice.di;
 
 import java.util.List;
 
-class SingletonProvider<T> implements ComponentProvider<T> {
-    private T singleton;
+class SingletonProvider<T> implements ScopedProvider<T> {
     private final ComponentProvider<T> provider;
+    private Instance<T> instance = new Instance<>();
 
     public SingletonProvider(ComponentProvider<T> provider) {
         this.provider = provider;
@@ -12,12 +12,52 @@ class SingletonProvider<T> implements ComponentProvider<T> {
 
     @Override
     public T get(Context context) {
-        if (singleton == null) singleton = provider.get(context);
-        return singleton;
+        Instance<T> instance = this.instance;
+        T singleton = instance.value;
+        if (singleton != null) {
+            ScopeLookupEvent.emit("singleton", singleton, true);
+            return singleton;
+        }
+        synchronized (instance) {
+            boolean hit = instance.value != null;
+            if (!hit) instance.value = provider.get(context);
+            ScopeLookupEvent.emit("singleton", instance.value, hit);
+            return instance.value;
+        }
     }
 
     @Override
     public List<ComponentRef<?>> getDependencies() {
         return provider.getDependencies();
     }
+
+    @Override
+    public void compile() {
+        provider.compile();
+    }
+
+    @Override
+    public ComponentProvider<T> link(Linker linker, Component component) {
+        return new SingletonProvider<>(provider.link(linker, component));
+    }
+
+    @Override
+    public ComponentProvider<T> unscoped() {
+        return provider;
+    }
+
+    @Override
+    public ComponentProvider<T> rescope(ComponentProvider<T> provider) {
+        return new SingletonProvider<>(provider);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void retain(ScopedProvider<?> previous) {
+        if (previous instanceof SingletonProvider<?> singleton) instance = (Instance<T>) singleton.instance;
+    }
+
+    private static class Instance<T> {
+        volatile T value;
+    }
 }
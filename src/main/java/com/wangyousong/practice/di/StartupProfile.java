@@ -0,0 +1,134 @@
+package com.wangyousong.practice.di;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Comparator.comparingLong;
+
+public final class StartupProfile {
+    private final Map<Component, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Component, ComponentProvider<?>> providers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Frame> current = new ThreadLocal<>();
+
+    StartupProfile() {
+    }
+
+    public record Entry(Component component, long inclusiveNanos, long exclusiveNanos) {
+    }
+
+    public List<Entry> entries() {
+        return entries.values().stream().sorted(comparingLong(Entry::inclusiveNanos).reversed()).toList();
+    }
+
+    public List<Entry> criticalPath() {
+        Map<Component, Long> costs = new HashMap<>();
+        Component head = entries.keySet().stream()
+                .max(comparingLong(component -> cost(component, costs))).orElse(null);
+        List<Entry> path = new ArrayList<>();
+        for (Component component = head; component != null; component = heaviest(component, costs))
+            path.add(entries.get(component));
+        return path;
+    }
+
+    public String report() {
+        List<Entry> path = criticalPath();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Critical path (%.3f ms)%n", path.stream().mapToLong(Entry::exclusiveNanos).sum() / 1e6));
+        for (int i = 0; i < path.size(); i++)
+            report.append(i == 0 ? "  " : "  -> ").append(line(path.get(i)));
+        report.append(String.format("Components by inclusive time%n"));
+        for (Entry entry : entries()) report.append("  ").append(line(entry));
+        return report.toString();
+    }
+
+    public String toJson() {
+        StringJoiner path = new StringJoiner(",", "[", "]");
+        criticalPath().forEach(entry -> path.add(json(entry)));
+        StringJoiner components = new StringJoiner(",", "[", "]");
+        entries().forEach(entry -> components.add(json(entry)));
+        return "{\"criticalPath\":" + path + ",\"components\":" + components + "}";
+    }
+
+    ComponentProvider<?> instrument(Component component, ComponentProvider<?> provider) {
+        providers.put(component, provider);
+        if (provider instanceof ScopedProvider<?> scoped) return rescope(scoped, component);
+        return new ProfilingProvider<>(provider, this, component);
+    }
+
+    private <T> ComponentProvider<T> rescope(ScopedProvider<T> scoped, Component component) {
+        return scoped.rescope(new ProfilingProvider<>(scoped.unscoped(), this, component));
+    }
+
+    Frame enter(Component component) {
+        Frame frame = new Frame(component, current.get(), System.nanoTime());
+        current.set(frame);
+        return frame;
+    }
+
+    // every construction is timed so its parent's exclusive time stays exact, only the first one is recorded
+    void exit(Frame frame) {
+        long inclusive = System.nanoTime() - frame.start;
+        if (frame.parent == null) current.remove();
+        else {
+            current.set(frame.parent);
+            frame.parent.nested += inclusive;
+        }
+        entries.putIfAbsent(frame.component, new Entry(frame.component, inclusive, inclusive - frame.nested));
+    }
+
+    private long cost(Component component, Map<Component, Long> costs) {
+        Long known = costs.get(component);
+        if (known != null) return known;
+        long cost = entries.get(component).exclusiveNanos();
+        Component heaviest = heaviest(component, costs);
+        if (heaviest != null) cost += cost(heaviest, costs);
+        costs.put(component, cost);
+        return cost;
+    }
+
+    private Component heaviest(Component component, Map<Component, Long> costs) {
+        ComponentProvider<?> provider = providers.get(component);
+        if (provider == null) return null;
+        return provider.getDependencies().stream()
+                .filter(ref -> !ref.isContainer()).map(ComponentRef::component)
+                .filter(entries::containsKey)
+                .max(comparingLong(dependency -> cost(dependency, costs))).orElse(null);
+    }
+
+    private static String line(Entry entry) {
+        return String.format("%s  inclusive %.3f ms  exclusive %.3f ms%n", nameOf(entry.component()),
+                entry.inclusiveNanos() / 1e6, entry.exclusiveNanos() / 1e6);
+    }
+
+    private static String json(Entry entry) {
+        return "{\"component\":\"" + escape(nameOf(entry.component())) + "\",\"inclusiveNanos\":" + entry.inclusiveNanos()
+                + ",\"exclusiveNanos\":" + entry.exclusiveNanos() + "}";
+    }
+
+    private static String nameOf(Component component) {
+        return component.qualifiers() == null ? component.type().getName() : component.qualifiers() + " " + component.type().getName();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') escaped.append('\\').append(c);
+            else if (c < 0x20) escaped.append(String.format("\\u%04x", (int) c));
+            else escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    static class Frame {
+        private final Component component;
+        private final Frame parent;
+        private final long start;
+        private long nested;
+
+        Frame(Component component, Frame parent, long start) {
+            this.component = component;
+            this.parent = parent;
+            this.start = start;
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package com.wangyousong.practice.di;
 
 import com.wangyousong.practice.di.InjectionTest.ConstructorInjection.Injection.InjectConstructor;
+import com.wangyousong.practice.di.discovery.Greeter;
+import com.wangyousong.practice.di.discovery.Greeting;
+import com.wangyousong.practice.di.discovery.NotAComponent;
+import com.wangyousong.practice.di.factory.Car;
+import com.wangyousong.practice.di.factory.Engine;
+import com.wangyousong.practice.di.factory.Throwing;
+import com.wangyousong.practice.di.factory.Unchecked;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.reflect.Type;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ContextTest {
@@ -68,6 +95,23 @@ class ContextTest {
             );
         }
 
+        @ParameterizedTest(name = "supporting {0}")
+        @MethodSource("should_bind_type_to_an_injectable_component")
+        void should_bind_type_to_an_injectable_component_via_generated_injectors(Class<? extends TestComponent> componentType) {
+            config.useGeneratedInjectors();
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, componentType);
+
+            ContextSnapshot context = (ContextSnapshot) config.getContext();
+            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
+
+            assertTrue(FactoryProvider.of(componentType).isEmpty());
+            InjectionProvider<?> provider = assertInstanceOf(InjectionProvider.class, context.linked(new Component(TestComponent.class, null)));
+            assertTrue(provider.isCompiled());
+            assertTrue(component.isPresent());
+            assertSame(dependency, component.get().dependency());
+        }
+
         static class ConstructorInjection implements TestComponent {
             private Dependency dependency;
 
@@ -112,6 +156,15 @@ class ContextTest {
             assertTrue(component.isEmpty());
         }
 
+        @Test
+        void should_not_see_bindings_added_after_context_created() {
+            Context context = config.getContext();
+            config.bind(TestComponent.class, instance);
+
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+            assertSame(instance, config.getContext().get(ComponentRef.of(TestComponent.class)).get());
+        }
+
         @Test
         void should_retrieve_bind_type_as_provider() {
             config.bind(TestComponent.class, instance);
@@ -122,15 +175,190 @@ class ContextTest {
             assertSame(instance, provider.get());
         }
 
+        @Test
+        void should_retrieve_same_provider_for_binding_every_time() {
+            config.bind(TestComponent.class, instance);
+            Context context = config.getContext();
+
+            ComponentRef<Provider<TestComponent>> ref = new ComponentRef<>() {
+            };
+            assertSame(context.get(ref).get(), context.get(ref).get());
+        }
+
+        static class Expensive {
+            static final AtomicInteger constructions = new AtomicInteger();
+
+            public Expensive() {
+                constructions.incrementAndGet();
+            }
+        }
+
+        static class LazyDependent {
+            final Lazy<Expensive> expensive;
+
+            @Inject
+            public LazyDependent(Lazy<Expensive> expensive) {
+                this.expensive = expensive;
+            }
+        }
+
+        @Test
+        void should_not_construct_lazy_dependency_until_first_access() {
+            Expensive.constructions.set(0);
+            config.bind(Expensive.class, Expensive.class);
+            config.bind(LazyDependent.class, LazyDependent.class);
+            Context context = config.getContext();
+
+            LazyDependent component = context.get(ComponentRef.of(LazyDependent.class)).get();
+            assertEquals(0, Expensive.constructions.get());
+            assertSame(component.expensive.get(), component.expensive.get());
+            assertEquals(1, Expensive.constructions.get());
+        }
+
+        @Test
+        void should_retrieve_bind_type_as_future_completed_on_configured_executor() throws Exception {
+            config.bind(TestComponent.class, instance);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                config.asyncExecutor(executor);
+                Context context = config.getContext();
+
+                CompletableFuture<TestComponent> future = context.get(new ComponentRef<CompletableFuture<TestComponent>>() {
+                }).get();
+                assertSame(instance, future.get());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
         @Test
         void should_not_retrieve_bind_type_as_unsupported_container() {
             config.bind(TestComponent.class, instance);
             Context context = config.getContext();
 
-            assertFalse(context.get(new ComponentRef<List<TestComponent>>() {
+            assertFalse(context.get(new ComponentRef<Optional<TestComponent>>() {
             }).isPresent());
         }
 
+        interface Handler {
+        }
+
+        @Singleton
+        static class FirstHandler implements Handler {
+        }
+
+        @Singleton
+        static class SecondHandler implements Handler {
+        }
+
+        static class Pipeline {
+            final Set<Handler> handlers;
+
+            @Inject
+            public Pipeline(Set<Handler> handlers) {
+                this.handlers = handlers;
+            }
+        }
+
+        @Test
+        void should_retrieve_all_bindings_of_type_as_list_and_set() {
+            config.bind(Handler.class, FirstHandler.class);
+            config.bind(Handler.class, SecondHandler.class, new Utils.NamedLiteral("second"));
+            config.bind(Pipeline.class, Pipeline.class);
+            Context context = config.getContext();
+
+            List<Handler> handlers = context.get(new ComponentRef<List<Handler>>() {
+            }).get();
+            assertEquals(2, handlers.size());
+            assertInstanceOf(FirstHandler.class, handlers.get(0));
+            assertInstanceOf(SecondHandler.class, handlers.get(1));
+            assertThrows(UnsupportedOperationException.class, () -> handlers.add(handlers.get(0)));
+            assertEquals(Set.copyOf(handlers), context.get(ComponentRef.of(Pipeline.class)).get().handlers);
+        }
+
+        @Test
+        void should_retrieve_named_bindings_of_type_as_map() {
+            config.bind(Handler.class, FirstHandler.class);
+            config.bind(Handler.class, SecondHandler.class, new Utils.NamedLiteral("second"));
+            Context context = config.getContext();
+
+            ComponentRef<Map<String, Handler>> ref = new ComponentRef<>() {
+            };
+            Map<String, Handler> handlers = context.get(ref).get();
+            assertEquals(Set.of("second"), handlers.keySet());
+            assertSame(handlers, context.get(ref).get());
+        }
+
+        static class HandlerContainers {
+            List<Handler> handlers;
+            List<Handler> sameHandlers;
+        }
+
+        @Test
+        void should_return_cached_ref_for_equal_container_types() throws NoSuchFieldException {
+            Type handlers = HandlerContainers.class.getDeclaredField("handlers").getGenericType();
+            Type sameHandlers = HandlerContainers.class.getDeclaredField("sameHandlers").getGenericType();
+
+            assertSame(ComponentRef.of(handlers), ComponentRef.of(sameHandlers));
+            assertSame(ComponentRef.of(handlers, new Utils.NamedLiteral("second")), ComponentRef.of(sameHandlers, new Utils.NamedLiteral("second")));
+            assertNotEquals(ComponentRef.of(handlers), ComponentRef.of(handlers, new Utils.NamedLiteral("second")));
+        }
+
+        @Test
+        void should_treat_type_token_as_equal_to_cached_ref() throws NoSuchFieldException {
+            ComponentRef<List<Handler>> token = new ComponentRef<>() {
+            };
+            ComponentRef<?> cached = ComponentRef.of(HandlerContainers.class.getDeclaredField("handlers").getGenericType());
+
+            assertEquals(cached, token);
+            assertEquals(token, cached);
+            assertEquals(cached.hashCode(), token.hashCode());
+            assertEquals(token, new ComponentRef<List<Handler>>() {
+            });
+        }
+
+        static class IntegerKeyedHandlers {
+            @Inject
+            public IntegerKeyedHandlers(Map<Integer, Handler> handlers) {
+            }
+        }
+
+        @Test
+        void should_throw_exception_if_map_key_is_not_string() {
+            assertThrows(IllegalComponentException.class, () -> config.bind(IntegerKeyedHandlers.class, IntegerKeyedHandlers.class));
+            assertThrows(IllegalComponentException.class, () -> new ComponentRef<Map<Integer, Handler>>() {
+            });
+        }
+
+        @Test
+        void should_retrieve_empty_collection_if_no_binding_of_type() {
+            Context context = config.getContext();
+
+            assertTrue(context.get(new ComponentRef<List<Handler>>() {
+            }).get().isEmpty());
+        }
+
+        @Test
+        void should_contribute_several_unqualified_elements_to_collections() {
+            Handler instance = new Handler() {
+            };
+            config.bindInto(Handler.class, FirstHandler.class);
+            config.bindInto(Handler.class, SecondHandler.class);
+            config.bindInto(Handler.class, instance);
+            config.bindInto(Handler.class, SecondHandler.class, new Utils.NamedLiteral("second"));
+            Context context = config.getContext();
+
+            List<Handler> handlers = context.get(new ComponentRef<List<Handler>>() {
+            }).get();
+            assertEquals(4, handlers.size());
+            assertInstanceOf(FirstHandler.class, handlers.get(0));
+            assertInstanceOf(SecondHandler.class, handlers.get(1));
+            assertSame(instance, handlers.get(2));
+            assertEquals(Set.of("second"), context.get(new ComponentRef<Map<String, Handler>>() {
+            }).get().keySet());
+            assertTrue(context.get(ComponentRef.of(Handler.class)).isEmpty());
+        }
+
         @Nested
         public class WithQualifier {
             @Test
@@ -189,6 +417,75 @@ class ContextTest {
             void should_throw_exception_if_illegal_qualifier_given_to_component() {
                 assertThrows(IllegalComponentException.class, () -> config.bind(InjectConstructor.class, InjectConstructor.class, new Utils.TestLiteral()));
             }
+
+            @Documented
+            @Retention(RUNTIME)
+            @jakarta.inject.Qualifier
+            @interface Version {
+                int value();
+            }
+
+            record VersionLiteral(int value) implements Version {
+                @Override
+                public Class<? extends Annotation> annotationType() {
+                    return Version.class;
+                }
+
+                @Override
+                public boolean equals(Object o) {
+                    return o instanceof Version version && value == version.value();
+                }
+
+                @Override
+                public int hashCode() {
+                    return "value".hashCode() * 127 ^ Integer.hashCode(value);
+                }
+            }
+
+            static class Qualified {
+                @jakarta.inject.Named("ChosenOne")
+                @Utils.Skywalker
+                @Version(2)
+                Dependency dependency;
+            }
+
+            private <A extends Annotation> A declared(Class<A> type) throws NoSuchFieldException {
+                return Qualified.class.getDeclaredField("dependency").getAnnotation(type);
+            }
+
+            @Test
+            void should_treat_annotation_proxy_and_literal_named_as_same_qualifier() throws NoSuchFieldException {
+                jakarta.inject.Named proxy = declared(jakarta.inject.Named.class);
+                config.bind(TestComponent.class, instance, new Utils.NamedLiteral("ChosenOne"));
+
+                assertSame(instance, config.getContext().get(ComponentRef.of(TestComponent.class, proxy)).get());
+                assertComponentsEqual(proxy, new Utils.NamedLiteral("ChosenOne"));
+                assertSame(Qualifiers.named("ChosenOne"), new Component(TestComponent.class, proxy).qualifiers());
+            }
+
+            @Test
+            void should_treat_annotation_proxy_and_literal_marker_as_same_qualifier() throws NoSuchFieldException {
+                assertComponentsEqual(declared(Utils.Skywalker.class), new Utils.SkywalkerLiteral());
+            }
+
+            @Test
+            void should_treat_annotation_proxy_and_literal_with_members_as_same_qualifier() throws NoSuchFieldException {
+                Version proxy = declared(Version.class);
+                config.bind(TestComponent.class, instance, new VersionLiteral(2));
+
+                assertSame(instance, config.getContext().get(ComponentRef.of(TestComponent.class, proxy)).get());
+                assertComponentsEqual(proxy, new VersionLiteral(2));
+                assertNotEquals(new Component(TestComponent.class, proxy), new Component(TestComponent.class, new VersionLiteral(3)));
+            }
+
+            private void assertComponentsEqual(Annotation proxy, Annotation literal) {
+                Component declared = new Component(TestComponent.class, proxy);
+                Component bound = new Component(TestComponent.class, literal);
+
+                assertEquals(declared, bound);
+                assertEquals(declared.hashCode(), bound.hashCode());
+                assertSame(declared.qualifiers(), bound.qualifiers());
+            }
         }
 
         @Nested
@@ -214,6 +511,93 @@ class ContextTest {
                 assertSame(context.get(ComponentRef.of(NotSingleton.class)).get(), context.get(ComponentRef.of(NotSingleton.class)).get());
             }
 
+            @Test
+            void should_share_singleton_bound_under_several_qualifiers() {
+                config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral(),
+                        new Utils.NamedLiteral("a"), new Utils.NamedLiteral("b"));
+                config.collectMetrics();
+                Context context = config.getContext();
+
+                assertSame(context.get(ComponentRef.of(NotSingleton.class, new Utils.NamedLiteral("a"))).get(),
+                        context.get(ComponentRef.of(NotSingleton.class, new Utils.NamedLiteral("b"))).get());
+            }
+
+            @Test
+            void should_share_singletons_between_full_and_root_contexts() {
+                config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral());
+                Context full = config.getContext();
+                Context rooted = config.getContext(ComponentRef.of(NotSingleton.class));
+
+                assertSame(full.get(ComponentRef.of(NotSingleton.class)).get(), rooted.get(ComponentRef.of(NotSingleton.class)).get());
+                assertSame(rooted.get(ComponentRef.of(NotSingleton.class)).get(), config.getContext().get(ComponentRef.of(NotSingleton.class)).get());
+            }
+
+            @Test
+            void should_keep_singletons_when_context_is_relinked_after_configuration_change() {
+                config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral());
+                Object singleton = config.getContext().get(ComponentRef.of(NotSingleton.class)).get();
+
+                ContextMetrics metrics = config.collectMetrics();
+                assertSame(singleton, config.getContext().get(ComponentRef.of(NotSingleton.class)).get());
+                assertEquals(1, metrics.of(new Component(NotSingleton.class, null)).get().getResolutions());
+
+                config.profileStartup();
+                config.useGeneratedInjectors();
+                config.asyncExecutor(Runnable::run);
+                assertSame(singleton, config.getContext().get(ComponentRef.of(NotSingleton.class)).get());
+            }
+
+            static class SlowSingleton {
+                static final AtomicInteger constructions = new AtomicInteger();
+
+                public SlowSingleton() throws InterruptedException {
+                    constructions.incrementAndGet();
+                    Thread.sleep(10);
+                }
+            }
+
+            @Test
+            void should_construct_singleton_only_once_under_concurrent_first_access() throws Exception {
+                SlowSingleton.constructions.set(0);
+                config.bind(SlowSingleton.class, SlowSingleton.class, new SingletonLiteral());
+                Context context = config.getContext();
+
+                int threads = 64;
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                CountDownLatch start = new CountDownLatch(1);
+                try {
+                    List<Future<SlowSingleton>> futures = new ArrayList<>();
+                    for (int i = 0; i < threads; i++)
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            return context.get(ComponentRef.of(SlowSingleton.class)).get();
+                        }));
+                    start.countDown();
+
+                    Set<SlowSingleton> instances = new HashSet<>();
+                    for (Future<SlowSingleton> future : futures) instances.add(future.get());
+
+                    assertEquals(1, instances.size());
+                    assertEquals(1, SlowSingleton.constructions.get());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            @Test
+            void should_instantiate_singletons_eagerly_when_context_created() {
+                SlowSingleton.constructions.set(0);
+                config.eagerSingletons();
+                config.bind(SlowSingleton.class, SlowSingleton.class, new SingletonLiteral());
+                config.bind(NotSingleton.class, NotSingleton.class);
+
+                Context context = config.getContext();
+
+                assertEquals(1, SlowSingleton.constructions.get());
+                assertSame(context.get(ComponentRef.of(SlowSingleton.class)).get(), context.get(ComponentRef.of(SlowSingleton.class)).get());
+                assertEquals(1, SlowSingleton.constructions.get());
+            }
+
             @Singleton
             static class SingletonAnnotated implements Dependency {
 
@@ -227,6 +611,104 @@ class ContextTest {
                 assertSame(context.get(ComponentRef.of(Dependency.class)).get(), context.get(ComponentRef.of(Dependency.class)).get());
             }
 
+            @RequestScoped
+            static class PerRequest implements AutoCloseable {
+                boolean closed;
+
+                @Override
+                public void close() {
+                    closed = true;
+                }
+            }
+
+            @Test
+            void should_share_request_scoped_component_within_request_and_dispose_at_exit() {
+                config.bind(PerRequest.class, PerRequest.class);
+                Context context = config.getContext();
+
+                PerRequest first;
+                try (ScopedInstances request = LocalScope.REQUEST.enter()) {
+                    first = context.get(ComponentRef.of(PerRequest.class)).get();
+                    assertSame(first, context.get(ComponentRef.of(PerRequest.class)).get());
+                }
+                assertTrue(first.closed);
+                assertFalse(LocalScope.REQUEST.isActive());
+
+                try (ScopedInstances request = LocalScope.REQUEST.enter()) {
+                    assertNotSame(first, context.get(ComponentRef.of(PerRequest.class)).get());
+                }
+            }
+
+            @RequestScoped
+            static class RequestSession implements AutoCloseable {
+                final PerRequest request;
+                boolean closedAfterRequest;
+
+                @Inject
+                public RequestSession(PerRequest request) {
+                    this.request = request;
+                }
+
+                @Override
+                public void close() {
+                    closedAfterRequest = request.closed;
+                }
+            }
+
+            @Test
+            void should_dispose_request_scoped_components_before_their_dependencies() {
+                config.bind(PerRequest.class, PerRequest.class);
+                config.bind(RequestSession.class, RequestSession.class);
+                Context context = config.getContext();
+
+                RequestSession session;
+                try (ScopedInstances request = LocalScope.REQUEST.enter()) {
+                    session = context.get(ComponentRef.of(RequestSession.class)).get();
+                }
+                assertFalse(session.closedAfterRequest);
+                assertTrue(session.request.closed);
+            }
+
+            @Test
+            void should_throw_exception_if_request_scope_not_entered() {
+                config.bind(PerRequest.class, PerRequest.class);
+                Context context = config.getContext();
+
+                assertThrows(OutOfScopeException.class, () -> context.get(ComponentRef.of(PerRequest.class)).get());
+            }
+
+            @ThreadScoped
+            static class PerThread {
+
+            }
+
+            @Test
+            void should_share_thread_scoped_component_within_thread_only() throws Exception {
+                config.bind(PerThread.class, PerThread.class);
+                Context context = config.getContext();
+
+                try {
+                    PerThread current = context.get(ComponentRef.of(PerThread.class)).get();
+                    assertSame(current, context.get(ComponentRef.of(PerThread.class)).get());
+
+                    ExecutorService executor = Executors.newSingleThreadExecutor();
+                    try {
+                        assertNotSame(current, executor.submit(() -> {
+                            try {
+                                return context.get(ComponentRef.of(PerThread.class)).get();
+                            } finally {
+                                LocalScope.THREAD.exit();
+                            }
+                        }).get());
+                    } finally {
+                        executor.shutdownNow();
+                    }
+                } finally {
+                    LocalScope.THREAD.exit();
+                }
+                assertFalse(LocalScope.THREAD.isActive());
+            }
+
             @Test
             void should_bind_component_as_customized_scope() {
                 config.scope(Pooled.class, PooledProvider::new);
@@ -289,8 +771,769 @@ class ContextTest {
 
     }
 
+    @Nested
+    public class Metrics {
+        @Singleton
+        static class SharedService {
+        }
+
+        static class Consumer {
+            @Inject
+            SharedService service;
+        }
+
+        @Test
+        void should_count_resolutions_constructions_and_singleton_hits_per_component() {
+            ContextMetrics metrics = config.collectMetrics();
+            config.bind(SharedService.class, SharedService.class);
+            config.bind(Consumer.class, Consumer.class);
+            Context context = config.getContext();
+
+            for (int i = 0; i < 3; i++) context.get(ComponentRef.of(Consumer.class)).get();
+
+            ComponentMetrics consumer = metrics.of(new Component(Consumer.class, null)).get();
+            assertEquals(3, consumer.getResolutions());
+            assertEquals(3, consumer.getConstructions());
+            assertEquals(1, consumer.getDepth());
+            assertTrue(consumer.getMaxNanos() >= consumer.getP50Nanos());
+
+            ComponentMetrics service = metrics.of(new Component(SharedService.class, null)).get();
+            assertEquals(3, service.getResolutions());
+            assertEquals(1, service.getConstructions());
+            assertEquals(2, service.getSingletonHits());
+        }
+
+        @Test
+        void should_expose_metrics_over_jmx() throws Exception {
+            ContextMetrics metrics = config.collectMetrics();
+            config.bind(SharedService.class, SharedService.class);
+            config.getContext().get(ComponentRef.of(SharedService.class)).get();
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = metrics.register("metrics-test");
+            try {
+                assertEquals(1L, server.getAttribute(name, "TotalResolutions"));
+                assertEquals(1, ((Object[]) server.getAttribute(name, "Components")).length);
+            } finally {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    @Nested
+    public class Profiler {
+        static class Slow {
+            public Slow() throws InterruptedException {
+                Thread.sleep(20);
+            }
+        }
+
+        static class Fast {
+        }
+
+        static class Root {
+            @Inject
+            public Root(Slow slow, Fast fast) {
+            }
+        }
+
+        @Test
+        void should_report_critical_path_with_inclusive_and_exclusive_times() {
+            StartupProfile profile = config.profileStartup();
+            config.bind(Slow.class, Slow.class);
+            config.bind(Fast.class, Fast.class);
+            config.bind(Root.class, Root.class);
+
+            config.getContext().get(ComponentRef.of(Root.class)).get();
+
+            List<StartupProfile.Entry> path = profile.criticalPath();
+            assertEquals(List.of(Root.class, Slow.class), path.stream().map(e -> e.component().type()).toList());
+            StartupProfile.Entry root = path.get(0);
+            assertTrue(root.inclusiveNanos() >= 20_000_000);
+            assertTrue(root.exclusiveNanos() < path.get(1).inclusiveNanos());
+            assertEquals(Root.class, profile.entries().get(0).component().type());
+            assertTrue(profile.toJson().startsWith("{\"criticalPath\":[{\"component\":\"" + Root.class.getName()));
+            assertTrue(profile.report().contains("-> " + Slow.class.getName()));
+        }
+
+        @Test
+        void should_not_charge_rebuilt_dependency_to_parent_exclusive_time() {
+            StartupProfile profile = config.profileStartup();
+            config.bind(Slow.class, Slow.class);
+            config.bind(Fast.class, Fast.class);
+            config.bind(Root.class, Root.class);
+            Context context = config.getContext();
+
+            context.get(ComponentRef.of(Slow.class)).get();
+            context.get(ComponentRef.of(Root.class)).get();
+
+            StartupProfile.Entry root = profile.entries().stream()
+                    .filter(entry -> entry.component().type() == Root.class).findFirst().get();
+            assertTrue(root.inclusiveNanos() >= 20_000_000);
+            assertTrue(root.exclusiveNanos() < 20_000_000);
+        }
+    }
+
+    @Nested
+    public class FlightRecorder {
+        @TempDir
+        Path directory;
+
+        @Singleton
+        static class SharedService {
+        }
+
+        static class Consumer {
+            @Inject
+            SharedService service;
+        }
+
+        @Test
+        void should_emit_validation_construction_and_scope_events_when_recording() throws IOException {
+            config.bind(SharedService.class, SharedService.class);
+            config.bind(Consumer.class, Consumer.class, new Utils.SkywalkerLiteral());
+
+            Path file = directory.resolve("di.jfr");
+            try (Recording recording = new Recording()) {
+                Stream.of("ContextValidation", "ComponentConstruction", "ScopeLookup")
+                        .forEach(name -> recording.enable("com.wangyousong.practice.di." + name).withoutThreshold());
+                recording.start();
+                Context context = config.getContext();
+                context.get(ComponentRef.of(Consumer.class, new Utils.SkywalkerLiteral())).get();
+                context.get(ComponentRef.of(SharedService.class)).get();
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent validation = events.stream().filter(e -> e.getEventType().getName().endsWith("ContextValidation")).findFirst().get();
+            assertEquals(2, validation.getInt("componentCount"));
+
+            Map<String, RecordedEvent> constructions = events.stream().filter(e -> e.getEventType().getName().endsWith("ComponentConstruction"))
+                    .collect(Collectors.toMap(e -> e.getClass("componentType").getName(), e -> e));
+            assertEquals(Set.of(Consumer.class.getName(), SharedService.class.getName()), constructions.keySet());
+            assertEquals(0, constructions.get(Consumer.class.getName()).getInt("depth"));
+            assertEquals(1, constructions.get(SharedService.class.getName()).getInt("depth"));
+            assertEquals("@" + Utils.Skywalker.class.getName(), constructions.get(Consumer.class.getName()).getString("qualifiers"));
+            assertNull(constructions.get(SharedService.class.getName()).getString("qualifiers"));
+
+            List<Boolean> hits = events.stream().filter(e -> e.getEventType().getName().endsWith("ScopeLookup"))
+                    .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                    .map(e -> e.getBoolean("hit")).toList();
+            assertEquals(List.of(false, true), hits);
+        }
+
+        @Test
+        void should_report_every_qualifier_sharing_a_construction() throws IOException {
+            config.bind(Consumer.class, Consumer.class, new Utils.SkywalkerLiteral(), new Utils.NamedLiteral("consumer"));
+            config.bind(SharedService.class, SharedService.class);
+
+            Path file = directory.resolve("qualifiers.jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("com.wangyousong.practice.di.ComponentConstruction").withoutThreshold();
+                recording.start();
+                config.getContext().get(ComponentRef.of(Consumer.class, new Utils.NamedLiteral("consumer"))).get();
+                recording.stop();
+                recording.dump(file);
+            }
+
+            RecordedEvent construction = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getClass("componentType").getName().equals(Consumer.class.getName())).findFirst().get();
+            assertEquals("@" + Utils.Skywalker.class.getName() + ", " + Qualifiers.named("consumer"), construction.getString("qualifiers"));
+        }
+    }
+
+    @Nested
+    public class Rebinding {
+        @Singleton
+        static class Consumer {
+            final Dependency dependency;
+
+            @Inject
+            public Consumer(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        @Singleton
+        static class Unrelated {
+        }
+
+        @Test
+        void should_only_replace_singletons_depending_on_rebound_component() {
+            config.bind(Dependency.class, dependency);
+            config.bind(Consumer.class, Consumer.class);
+            config.bind(Unrelated.class, Unrelated.class);
+            Context before = config.getContext();
+            Consumer consumer = before.get(ComponentRef.of(Consumer.class)).get();
+            Unrelated unrelated = before.get(ComponentRef.of(Unrelated.class)).get();
+
+            Dependency flipped = new Dependency() {
+            };
+            config.bind(Dependency.class, flipped);
+            Context after = config.getContext();
+
+            assertSame(flipped, after.get(ComponentRef.of(Consumer.class)).get().dependency);
+            assertSame(unrelated, after.get(ComponentRef.of(Unrelated.class)).get());
+            assertSame(consumer, before.get(ComponentRef.of(Consumer.class)).get());
+        }
+
+        @Test
+        void should_resolve_current_context_against_latest_published_version() {
+            Context current = config.currentContext();
+            config.bind(Dependency.class, dependency);
+            config.getContext();
+            assertSame(dependency, current.get(ComponentRef.of(Dependency.class)).get());
+
+            Dependency flipped = new Dependency() {
+            };
+            config.bind(Dependency.class, flipped);
+            config.getContext();
+            assertSame(flipped, current.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_keep_published_context_if_rebind_introduces_cycle() {
+            config.bind(Dependency.class, dependency);
+            config.bind(Consumer.class, Consumer.class);
+            Context current = config.currentContext();
+            config.getContext();
+
+            config.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+            config.bind(TestComponent.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+
+            assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+            assertSame(dependency, current.get(ComponentRef.of(Dependency.class)).get());
+        }
+    }
+
+    @Nested
+    public class WithParent {
+        @Singleton
+        static class SharedService {
+        }
+
+        static class TenantComponent implements TestComponent {
+            private final Dependency dependency;
+            final SharedService service;
+
+            @Inject
+            public TenantComponent(Dependency dependency, SharedService service) {
+                this.dependency = dependency;
+                this.service = service;
+            }
+
+            @Override
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        @Test
+        void should_resolve_inherited_bindings_from_parent_and_share_its_singletons() {
+            config.bind(SharedService.class, SharedService.class);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TenantComponent.class);
+            Context parent = config.getContext();
+
+            Dependency override = new Dependency() {
+            };
+            ContextConfig child = new ContextConfig(parent);
+            child.bind(Dependency.class, override);
+            child.bind(TestComponent.class, TenantComponent.class);
+            Context context = child.getContext();
+
+            TenantComponent tenant = (TenantComponent) context.get(ComponentRef.of(TestComponent.class)).get();
+            assertSame(override, tenant.dependency());
+            assertSame(parent.get(ComponentRef.of(SharedService.class)).get(), tenant.service);
+            assertSame(dependency, parent.get(ComponentRef.of(TestComponent.class)).get().dependency());
+        }
+
+        @Test
+        void should_rewire_inherited_components_depending_on_overridden_binding() {
+            config.bind(SharedService.class, SharedService.class);
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TenantComponent.class, new SingletonLiteral());
+            Context parent = config.getContext();
+
+            Dependency override = new Dependency() {
+            };
+            ContextConfig child = new ContextConfig(parent);
+            child.bind(Dependency.class, override);
+            Context context = child.getContext();
+
+            TestComponent tenant = context.get(ComponentRef.of(TestComponent.class)).get();
+            assertSame(override, tenant.dependency());
+            assertSame(tenant, context.get(ComponentRef.of(TestComponent.class)).get());
+            assertSame(parent.get(ComponentRef.of(SharedService.class)).get(), ((TenantComponent) tenant).service);
+            assertSame(dependency, parent.get(ComponentRef.of(TestComponent.class)).get().dependency());
+        }
+
+        @Test
+        void should_merge_parent_elements_into_child_collections() {
+            TypeBinding.Handler override = new TypeBinding.Handler() {
+            };
+            TypeBinding.Handler added = new TypeBinding.Handler() {
+            };
+            config.bind(TypeBinding.Handler.class, TypeBinding.FirstHandler.class);
+            config.bindInto(TypeBinding.Handler.class, TypeBinding.SecondHandler.class);
+            Context parent = config.getContext();
+
+            ContextConfig child = new ContextConfig(parent);
+            child.bind(TypeBinding.Handler.class, override);
+            child.bindInto(TypeBinding.Handler.class, added);
+            Context context = child.getContext();
+
+            ComponentRef<List<TypeBinding.Handler>> ref = new ComponentRef<>() {
+            };
+            List<TypeBinding.Handler> handlers = context.get(ref).get();
+            assertEquals(3, handlers.size());
+            assertSame(override, handlers.get(0));
+            assertSame(parent.get(ref).get().get(1), handlers.get(1));
+            assertSame(added, handlers.get(2));
+            assertEquals(2, parent.get(ref).get().size());
+        }
+
+        @Test
+        void should_throw_exception_if_dependency_not_found_in_child_or_parent() {
+            Context parent = config.getContext();
+
+            ContextConfig child = new ContextConfig(parent);
+            child.bind(InjectConstructor.class, InjectConstructor.class);
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, child::getContext);
+            assertEquals(Dependency.class, exception.getDependency().type());
+        }
+    }
+
+    @Nested
+    public class DeferredProviders {
+        @Test
+        void should_only_validate_components_reachable_from_roots() {
+            config.deferProviders();
+            config.bind(Dependency.class, dependency);
+            config.bind(Rebinding.Consumer.class, Rebinding.Consumer.class);
+            config.bind(TestComponent.class, WithParent.TenantComponent.class);
+
+            Context context = config.getContext(ComponentRef.of(Rebinding.Consumer.class));
+
+            assertSame(dependency, context.get(ComponentRef.of(Rebinding.Consumer.class)).get().dependency);
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                    () -> context.get(ComponentRef.of(TestComponent.class)));
+            assertEquals(WithParent.SharedService.class, exception.getDependency().type());
+        }
+
+        @Test
+        void should_link_unreachable_component_on_first_get() {
+            config.deferProviders();
+            config.bind(Dependency.class, dependency);
+            config.bind(InjectConstructor.class, InjectConstructor.class);
+            config.bind(WithParent.SharedService.class, WithParent.SharedService.class);
+
+            Context context = config.getContext(ComponentRef.of(WithParent.SharedService.class));
+
+            assertSame(dependency, context.get(ComponentRef.of(InjectConstructor.class)).get().dependency);
+            assertSame(context.get(ComponentRef.of(WithParent.SharedService.class)).get(),
+                    context.get(ComponentRef.of(WithParent.SharedService.class)).get());
+        }
+
+        @Test
+        void should_link_unreachable_component_against_bindings_at_get_context() {
+            config.bind(Dependency.class, dependency);
+            config.bind(WithParent.SharedService.class, WithParent.SharedService.class);
+            Context context = config.getContext(ComponentRef.of(WithParent.SharedService.class));
+
+            config.bind(Dependency.class, new Dependency() {
+            });
+
+            assertSame(dependency, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        void should_throw_exception_if_root_not_bound() {
+            config.deferProviders();
+
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext(ComponentRef.of(TestComponent.class)));
+        }
+    }
+
+    @Nested
+    public class Pruning {
+        @Test
+        void should_drop_components_unreachable_from_roots_and_report_them() {
+            config.bind(Dependency.class, dependency);
+            config.bind(Rebinding.Consumer.class, Rebinding.Consumer.class);
+            config.bind(Rebinding.Unrelated.class, Rebinding.Unrelated.class);
+            config.bind(TestComponent.class, WithParent.TenantComponent.class);
+
+            Set<Component> pruned = config.prune(ComponentRef.of(Rebinding.Consumer.class));
+            Context context = config.getContext();
+
+            assertEquals(Set.of(new Component(Rebinding.Unrelated.class, null), new Component(TestComponent.class, null)), pruned);
+            assertSame(dependency, context.get(ComponentRef.of(Rebinding.Consumer.class)).get().dependency);
+            assertTrue(context.get(ComponentRef.of(Rebinding.Unrelated.class)).isEmpty());
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+        }
+
+        @Test
+        void should_retain_targets_of_provider_and_lazy_dependencies() {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, DependencyCheck.MissingDependencyProviderConstructor.class);
+            config.bind(TypeBinding.Expensive.class, TypeBinding.Expensive.class);
+            config.bind(TypeBinding.LazyDependent.class, TypeBinding.LazyDependent.class);
+
+            Set<Component> pruned = config.prune(ComponentRef.of(TestComponent.class), ComponentRef.of(TypeBinding.LazyDependent.class));
+            Context context = config.getContext();
+
+            assertTrue(pruned.isEmpty());
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isPresent());
+            assertNotNull(context.get(ComponentRef.of(TypeBinding.LazyDependent.class)).get().expensive.get());
+        }
+
+        @Test
+        void should_throw_exception_if_reachable_dependency_not_found() {
+            config.bind(Rebinding.Consumer.class, Rebinding.Consumer.class);
+
+            assertThrows(DependencyNotFoundException.class, () -> config.prune(ComponentRef.of(Rebinding.Consumer.class)));
+        }
+    }
+
+    @Nested
+    public class GeneratedFactories {
+        private final Engine engine = new Engine();
+        private final Engine spare = new Engine();
+
+        @Test
+        void should_generate_factories_for_fixture_components_only() {
+            assertTrue(FactoryProvider.of(Car.class).isPresent());
+            assertTrue(FactoryProvider.of(Engine.class).isPresent());
+            assertTrue(FactoryProvider.of(TypeBinding.ConstructorInjection.class).isEmpty());
+        }
+
+        @Test
+        void should_link_component_via_generated_factory() {
+            config.bind(Engine.class, Engine.class);
+            config.bind(Engine.class, spare, new Utils.NamedLiteral("spare"));
+            config.bind(Car.class, Car.class);
+            ContextSnapshot context = (ContextSnapshot) config.getContext();
+
+            assertInstanceOf(FactoryProvider.class, context.linked(new Component(Car.class, null)));
+            assertInstanceOf(FactoryProvider.class, context.linked(new Component(Engine.class, null)));
+            Car car = context.get(ComponentRef.of(Car.class)).get();
+            assertNotNull(car.engine());
+            assertSame(spare, car.spare());
+            assertNotNull(car.engines().get());
+        }
+
+        @Test
+        void should_inject_same_dependencies_as_reflective_injection() {
+            config.bind(Engine.class, engine);
+            config.bind(Engine.class, spare, new Utils.NamedLiteral("spare"));
+            config.bind(Car.class, Car.class);
+            Context context = config.getContext();
+
+            Car generated = context.get(ComponentRef.of(Car.class)).get();
+            Car reflected = new InjectionProvider<>(Car.class).get(context);
+
+            assertSame(reflected.engine(), generated.engine());
+            assertSame(reflected.spare(), generated.spare());
+            assertSame(reflected.engines().get(), generated.engines().get());
+        }
+
+        @Test
+        void should_fall_back_to_reflection_if_injection_point_throws_checked_exception() {
+            assertTrue(FactoryProvider.of(Throwing.class).isEmpty());
+            assertTrue(FactoryProvider.of(Unchecked.class).isPresent());
+
+            config.bind(Engine.class, engine);
+            config.bind(Throwing.class, Throwing.class);
+            ContextSnapshot context = (ContextSnapshot) config.getContext();
+
+            assertInstanceOf(InjectionProvider.class, context.linked(new Component(Throwing.class, null)));
+            Throwing throwing = context.get(ComponentRef.of(Throwing.class)).get();
+            assertSame(engine, throwing.engine());
+            assertTrue(throwing.isStarted());
+        }
+    }
+
+    @Nested
+    public class Discovery {
+        static final String PACKAGE = "com.wangyousong.practice.di.discovery";
+
+        @TempDir
+        Path directory;
+
+        @Test
+        void should_bind_discovered_components_in_package() {
+            config.discover(PACKAGE);
+            Context context = config.getContext();
+
+            assertEquals("Hello, world", context.get(ComponentRef.of(Greeting.class)).get().to("world"));
+            assertSame(context.get(ComponentRef.of(Greeter.class)).get(), context.get(ComponentRef.of(Greeter.class)).get());
+            assertTrue(context.get(ComponentRef.of(NotAComponent.class)).isEmpty());
+        }
+
+        @Test
+        void should_find_same_components_from_index_and_class_file_scan() {
+            ClassLoader loader = getClass().getClassLoader();
+
+            List<String> indexed = ComponentScanner.indexed(loader, PACKAGE);
+            assertEquals(List.of(Greeter.class.getName(), Greeting.class.getName(), Greeting.Nested.class.getName()), indexed);
+            assertEquals(indexed, ComponentScanner.scan(loader, PACKAGE));
+        }
+
+        @Test
+        void should_merge_index_and_scan_per_classpath_root() throws IOException {
+            Path indexed = directory.resolve("indexed.jar");
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(indexed))) {
+                put(jar, ComponentScanner.INDEX, (Greeter.class.getName() + "\n").getBytes());
+                put(jar, classFile(Greeter.class), classBytes(Greeter.class));
+            }
+            Path scanned = directory.resolve("scanned.jar");
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(scanned))) {
+                put(jar, classFile(Greeting.class), classBytes(Greeting.class));
+                put(jar, classFile(NotAComponent.class), classBytes(NotAComponent.class));
+            }
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{indexed.toUri().toURL(), scanned.toUri().toURL()}, null)) {
+                assertEquals(List.of(Greeter.class.getName(), Greeting.class.getName()), ComponentScanner.find(loader, PACKAGE));
+            }
+        }
+
+        @Test
+        void should_not_analyse_discovered_components_until_context_is_built() {
+            config.discover("com.wangyousong.practice.di.deferred");
+
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+        }
+
+        private static String classFile(Class<?> type) {
+            return type.getName().replace('.', '/') + ".class";
+        }
+
+        private static byte[] classBytes(Class<?> type) throws IOException {
+            try (InputStream in = type.getClassLoader().getResourceAsStream(classFile(type))) {
+                return in.readAllBytes();
+            }
+        }
+
+        private static void put(JarOutputStream jar, String name, byte[] bytes) throws IOException {
+            jar.putNextEntry(new JarEntry(name));
+            jar.write(bytes);
+            jar.closeEntry();
+        }
+    }
+
+    @Nested
+    public class Image {
+        @TempDir
+        Path directory;
+
+        static class RestoredComponent implements TestComponent {
+            private final Dependency dependency;
+            @Inject
+            @jakarta.inject.Named("ChosenOne")
+            Dependency named;
+            @Inject
+            @Utils.Skywalker
+            Dependency skywalker;
+            private Provider<Dependency> provider;
+
+            @Inject
+            public RestoredComponent(Dependency dependency) {
+                this.dependency = dependency;
+            }
+
+            @Inject
+            void install(Provider<Dependency> provider) {
+                this.provider = provider;
+            }
+
+            @Override
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        @Test
+        void should_restore_bindings_from_exported_image() throws IOException {
+            config.bind(Dependency.class, dependency);
+            config.bind(Dependency.class, dependency, new Utils.NamedLiteral("ChosenOne"), new Utils.SkywalkerLiteral());
+            config.bind(TestComponent.class, RestoredComponent.class, new SingletonLiteral(), new Utils.SkywalkerLiteral());
+            Path image = directory.resolve("context.image");
+            config.export(image);
+
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+            restored.bind(Dependency.class, dependency);
+            restored.bind(Dependency.class, dependency, new Utils.NamedLiteral("ChosenOne"), new Utils.SkywalkerLiteral());
+            Context context = restored.getContext();
+
+            RestoredComponent component = (RestoredComponent) context.get(ComponentRef.of(TestComponent.class, new Utils.SkywalkerLiteral())).get();
+            assertSame(dependency, component.dependency);
+            assertSame(dependency, component.named);
+            assertSame(dependency, component.skywalker);
+            assertSame(dependency, component.provider.get());
+            assertSame(component, context.get(ComponentRef.of(TestComponent.class, new Utils.SkywalkerLiteral())).get());
+        }
+
+        @Test
+        void should_share_restored_singleton_bound_under_several_qualifiers() throws IOException {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class, new SingletonLiteral(),
+                    new Utils.NamedLiteral("a"), new Utils.NamedLiteral("b"));
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class, new SingletonLiteral(), new Utils.NamedLiteral("c"));
+            Path image = directory.resolve("context.image");
+            config.export(image);
+
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+            restored.bind(Dependency.class, dependency);
+            Context context = restored.getContext();
+
+            TestComponent a = context.get(ComponentRef.of(TestComponent.class, new Utils.NamedLiteral("a"))).get();
+            assertSame(a, context.get(ComponentRef.of(TestComponent.class, new Utils.NamedLiteral("b"))).get());
+            assertNotSame(a, context.get(ComponentRef.of(TestComponent.class, new Utils.NamedLiteral("c"))).get());
+        }
+
+        static class PrimitiveComponent {
+            final int port;
+            final long timeout;
+
+            @Inject
+            public PrimitiveComponent(int port, long timeout) {
+                this.port = port;
+                this.timeout = timeout;
+            }
+        }
+
+        @Test
+        void should_restore_component_with_primitive_injection_points() throws IOException {
+            config.bind(int.class, 8080);
+            config.bind(long.class, 30L);
+            config.bind(PrimitiveComponent.class, PrimitiveComponent.class);
+            Path image = directory.resolve("context.image");
+            config.export(image);
+
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+            restored.bind(int.class, 8080);
+            restored.bind(long.class, 30L);
+            PrimitiveComponent component = restored.getContext().get(ComponentRef.of(PrimitiveComponent.class)).get();
+
+            assertEquals(8080, component.port);
+            assertEquals(30L, component.timeout);
+        }
+
+        @Test
+        void should_fall_back_to_reflection_if_class_changed_since_export() throws IOException {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.bind(PrimitiveComponent.class, PrimitiveComponent.class);
+            config.bind(int.class, 8080);
+            config.bind(long.class, 30L);
+            Path image = directory.resolve("context.image");
+            config.export(image);
+
+            byte[] bytes = Files.readAllBytes(image);
+            byte[] fingerprint = ByteBuffer.allocate(4).putInt(ContextImage.fingerprint(PrimitiveComponent.class)).array();
+            int at = Collections.indexOfSubList(toList(bytes), toList(fingerprint));
+            assertTrue(at > 0);
+            bytes[at] ^= 1;
+            int length = ByteBuffer.wrap(bytes, at + 4, 4).getInt();
+            Arrays.fill(bytes, at + 8, at + 8 + length, (byte) 0x7f);
+            Files.write(image, bytes);
+
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+            restored.bind(Dependency.class, dependency);
+            restored.bind(int.class, 8080);
+            restored.bind(long.class, 30L);
+            Context context = restored.getContext();
+
+            assertEquals(30L, context.get(ComponentRef.of(PrimitiveComponent.class)).get().timeout);
+            assertSame(dependency, context.get(ComponentRef.of(TestComponent.class)).get().dependency());
+        }
+
+        @Test
+        void should_not_trust_image_if_component_with_generated_factory_changed_since_export() throws IOException {
+            config.bind(Engine.class, Engine.class);
+            config.bind(Engine.class, new Engine(), new Utils.NamedLiteral("spare"));
+            config.bind(Car.class, Car.class);
+            Path image = directory.resolve("context.image");
+            config.export(image);
+            assertTrue(ContextImage.read(image).current());
+
+            byte[] bytes = Files.readAllBytes(image);
+            byte[] fingerprint = ByteBuffer.allocate(4).putInt(ContextImage.fingerprint(Car.class)).array();
+            int at = Collections.indexOfSubList(toList(bytes), toList(fingerprint));
+            assertTrue(at > 0);
+            bytes[at] ^= 1;
+            Files.write(image, bytes);
+
+            assertFalse(ContextImage.read(image).current());
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+            restored.bind(Engine.class, new Engine(), new Utils.NamedLiteral("spare"));
+            assertNotNull(restored.getContext().get(ComponentRef.of(Car.class)).get().engine());
+        }
+
+        private static List<Byte> toList(byte[] bytes) {
+            List<Byte> list = new ArrayList<>();
+            for (byte b : bytes) list.add(b);
+            return list;
+        }
+
+        @Test
+        void should_validate_restored_image_if_external_binding_missing() throws IOException {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            Path image = directory.resolve("context.image");
+            config.export(image);
+
+            ContextConfig restored = new ContextConfig();
+            restored.restore(image);
+
+            DependencyNotFoundException e = assertThrows(DependencyNotFoundException.class, restored::getContext);
+            assertEquals(Dependency.class, e.getDependency().type());
+        }
+    }
+
     @Nested
     public class DependencyCheck {
+        @Test
+        void should_validate_and_link_deep_dependency_chain() {
+            int depth = 50_000;
+            Map<Component, ComponentProvider<?>> chain = new LinkedHashMap<>();
+            for (int i = 0; i < depth; i++) {
+                ComponentRef<?> next = ComponentRef.of(Dependency.class, Qualifiers.named(String.valueOf(i + 1)));
+                List<ComponentRef<?>> dependencies = i + 1 < depth ? List.of(next) : List.of();
+                chain.put(new Component(Dependency.class, Qualifiers.named(String.valueOf(i))), new ComponentProvider<Dependency>() {
+                    @Override
+                    public Dependency get(Context context) {
+                        return null;
+                    }
+
+                    @Override
+                    public List<ComponentRef<?>> getDependencies() {
+                        return dependencies;
+                    }
+
+                    @Override
+                    public ComponentProvider<Dependency> link(Linker linker, Component component) {
+                        dependencies.forEach(linker::get);
+                        return this;
+                    }
+                });
+            }
+
+            DependencyGraph graph = new DependencyGraph(chain);
+            Component head = new Component(Dependency.class, Qualifiers.named("0"));
+
+            assertEquals(depth - 1, graph.levels().get(head));
+            assertNotNull(new Linker(chain).link(graph).linked(head));
+        }
+
         @ParameterizedTest
         @MethodSource
         void should_throw_exception_if_dependency_not_found(Class<? extends TestComponent> component) {
@@ -315,6 +1558,32 @@ class ContextTest {
             );
         }
 
+        @Test
+        void should_report_path_to_missing_dependency() {
+            config.bind(TestComponent.class, WithParent.TenantComponent.class);
+            config.bind(Dependency.class, IndirectCyclicDependencyInjectConstructor.class);
+            config.bind(WithParent.SharedService.class, WithParent.SharedService.class);
+
+            DependencyNotFoundException e = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            assertEquals(List.of(new Component(TestComponent.class, null), new Component(Dependency.class, null)), e.getPath());
+            assertEquals(AnotherDependency.class, e.getDependency().type());
+            assertEquals(0, e.getSuppressed().length);
+        }
+
+        @Test
+        void should_report_all_missing_dependencies_in_one_pass() {
+            config.bind(TestComponent.class, MissingDependencyConstructor.class);
+            config.bind(InjectConstructor.class, InjectConstructor.class);
+            config.bind(AnotherDependency.class, IndirectCyclicAnotherDependencyInjectConstructor.class);
+
+            DependencyNotFoundException e = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            List<Class<?>> components = Stream.concat(Stream.of(e), Arrays.stream(e.getSuppressed()))
+                    .<Class<?>>map(failure -> ((DependencyNotFoundException) failure).getComponent().type()).toList();
+            assertEquals(List.of(TestComponent.class, InjectConstructor.class), components);
+        }
+
         static class MissingDependencyConstructor implements TestComponent {
             @Inject
             public MissingDependencyConstructor(Dependency dependency) {
@@ -445,6 +1714,17 @@ class ContextTest {
             assertTrue(classes.contains(AnotherDependency.class));
         }
 
+        @Test
+        void should_report_cycle_in_dependency_order() {
+            config.bind(TestComponent.class, CyclicComponentInjectConstructor.class);
+            config.bind(Dependency.class, IndirectCyclicDependencyInjectConstructor.class);
+            config.bind(AnotherDependency.class, IndirectCyclicAnotherDependencyInjectConstructor.class);
+
+            CyclicDependenciesFoundException e = assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+
+            assertArrayEquals(new Class<?>[]{TestComponent.class, Dependency.class, AnotherDependency.class}, e.getComponents());
+        }
+
         public static Stream<Arguments> should_throw_exception_if_transitive_cyclic_dependencies_found() {
             List<Arguments> arguments = new ArrayList<>();
             for (Named<?> component : List.of(Named.of("Inject Constructor", CyclicComponentInjectConstructor.class),
@@ -9,12 +9,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class InjectionTest {
     private final Dependency dependency = mock(Dependency.class);
@@ -74,6 +74,17 @@ class InjectionTest {
                 assertArrayEquals(new ComponentRef[]{ComponentRef.of(dependencyProviderType)}, provider.getDependencies().toArray(ComponentRef[]::new));
             }
 
+            @Test
+            void should_resolve_dependency_via_linked_provider_instead_of_context() {
+                Linker linker = new Linker(Map.of(new Component(Dependency.class, null), c -> dependency));
+                Context unused = mock(Context.class);
+
+                InjectConstructor instance = new InjectionProvider<>(InjectConstructor.class).link(linker, new Component(InjectConstructor.class, null)).get(unused);
+
+                assertSame(dependency, instance.dependency);
+                verify(unused, never()).get(any());
+            }
+
             static class ProviderInjectConstructor {
                 Provider<Dependency> dependency;
 
@@ -506,4 +517,72 @@ class InjectionTest {
         }
 
     }
+
+    @Nested
+    class GeneratedInjector {
+        static class SuperClassWithInjectField {
+            @Inject
+            Dependency inherited;
+        }
+
+        static class PrimitiveInjectConstructor extends SuperClassWithInjectField {
+            int port;
+            long timeout;
+            double ratio;
+            boolean secure;
+            char separator;
+            short retries;
+            Dependency dependency;
+            @Inject
+            Dependency field;
+            long delay;
+
+            @Inject
+            public PrimitiveInjectConstructor(int port, long timeout, double ratio, boolean secure, char separator,
+                                              short retries, Dependency dependency) {
+                this.port = port;
+                this.timeout = timeout;
+                this.ratio = ratio;
+                this.secure = secure;
+                this.separator = separator;
+                this.retries = retries;
+                this.dependency = dependency;
+            }
+
+            @Inject
+            long install(long delay) {
+                this.delay = delay;
+                return delay;
+            }
+        }
+
+        @BeforeEach
+        void setUp() {
+            when(context.get(eq(ComponentRef.of(int.class)))).thenReturn(Optional.of(8080));
+            when(context.get(eq(ComponentRef.of(long.class)))).thenReturn(Optional.of(30L));
+            when(context.get(eq(ComponentRef.of(double.class)))).thenReturn(Optional.of(0.75));
+            when(context.get(eq(ComponentRef.of(boolean.class)))).thenReturn(Optional.of(true));
+            when(context.get(eq(ComponentRef.of(char.class)))).thenReturn(Optional.of(':'));
+            when(context.get(eq(ComponentRef.of(short.class)))).thenReturn(Optional.of((short) 3));
+        }
+
+        @Test
+        void should_inject_component_without_factory_via_generated_injector() {
+            InjectionProvider<PrimitiveInjectConstructor> provider = new InjectionProvider<>(PrimitiveInjectConstructor.class);
+            provider.compile();
+
+            assertTrue(provider.isCompiled());
+            PrimitiveInjectConstructor instance = provider.get(context);
+            assertEquals(8080, instance.port);
+            assertEquals(30L, instance.timeout);
+            assertEquals(0.75, instance.ratio);
+            assertTrue(instance.secure);
+            assertEquals(':', instance.separator);
+            assertEquals(3, instance.retries);
+            assertSame(dependency, instance.dependency);
+            assertSame(dependency, instance.field);
+            assertSame(dependency, instance.inherited);
+            assertEquals(30L, instance.delay);
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package com.wangyousong.practice.di.deferred;
+
+import jakarta.inject.Inject;
+
+public class Ambiguous {
+    @Inject
+    public Ambiguous() {
+    }
+
+    @Inject
+    public Ambiguous(Runnable task) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.wangyousong.practice.di.discovery;
+
+import jakarta.inject.Singleton;
+
+@Singleton
+public class Greeter {
+    public String greet(String name) {
+        return "Hello, " + name;
+    }
+}
@@ -0,0 +1,28 @@
+package com.wangyousong.practice.di.discovery;
+
+import jakarta.inject.Inject;
+
+public class Greeting {
+    private final Greeter greeter;
+
+    @Inject
+    public Greeting(Greeter greeter) {
+        this.greeter = greeter;
+    }
+
+    public String to(String name) {
+        return greeter.greet(name);
+    }
+
+    public static class Nested {
+        @Inject
+        public Nested() {
+        }
+    }
+
+    public class Inner {
+        @Inject
+        public Inner() {
+        }
+    }
+}
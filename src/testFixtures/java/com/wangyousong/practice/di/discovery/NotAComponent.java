@@ -0,0 +1,10 @@
+package com.wangyousong.practice.di.discovery;
+
+import jakarta.inject.Singleton;
+
+public class NotAComponent {
+
+    @Singleton
+    public abstract static class AbstractComponent {
+    }
+}
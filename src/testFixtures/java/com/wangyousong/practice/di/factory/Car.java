@@ -0,0 +1,35 @@
+package com.wangyousong.practice.di.factory;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+
+public class Car {
+    private final Engine engine;
+    @Inject
+    @Named("spare")
+    public Engine spare;
+    private Provider<Engine> engines;
+
+    @Inject
+    public Car(Engine engine) {
+        this.engine = engine;
+    }
+
+    @Inject
+    public void service(Provider<Engine> engines) {
+        this.engines = engines;
+    }
+
+    public Engine engine() {
+        return engine;
+    }
+
+    public Engine spare() {
+        return spare;
+    }
+
+    public Provider<Engine> engines() {
+        return engines;
+    }
+}
@@ -0,0 +1,9 @@
+package com.wangyousong.practice.di.factory;
+
+import jakarta.inject.Inject;
+
+public class Engine {
+    @Inject
+    public Engine() {
+    }
+}
@@ -0,0 +1,28 @@
+package com.wangyousong.practice.di.factory;
+
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+
+public class Throwing {
+    private final Engine engine;
+    private boolean started;
+
+    @Inject
+    public Throwing(Engine engine) throws IOException {
+        this.engine = engine;
+    }
+
+    @Inject
+    public void start() throws Exception {
+        started = true;
+    }
+
+    public Engine engine() {
+        return engine;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+}
@@ -0,0 +1,9 @@
+package com.wangyousong.practice.di.factory;
+
+import jakarta.inject.Inject;
+
+public class Unchecked {
+    @Inject
+    public Unchecked(Engine engine) throws IllegalStateException {
+    }
+}